@@ -0,0 +1,109 @@
+package com.aslaw.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each pooled connection is held, tagged with the endpoint
+ * (HTTP method and best matching pattern) that held it, as the
+ * {@code db.connection.hold} timer. Work outside of a mapped request is tagged
+ * "background" (scheduled jobs, async response writers) or "filter" (before
+ * handler mapping, e.g. authentication).
+ */
+@Configuration
+public class ConnectionMetricsConfig {
+
+    public static final String METRIC_NAME = "db.connection.hold";
+
+    @Bean
+    public static BeanPostProcessor connectionHoldTimePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    return new ConnectionHoldTimeDataSource(dataSource, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * DataSource wrapper that times every connection from checkout to close
+     */
+    static class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        ConnectionHoldTimeDataSource(DataSource target, ObjectProvider<MeterRegistry> meterRegistry) {
+            super(target);
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return timed(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return timed(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private Connection timed(Connection connection) {
+            long acquiredAt = System.nanoTime();
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && !closed[0]) {
+                        closed[0] = true;
+                        record(System.nanoTime() - acquiredAt);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        }
+
+        private void record(long nanos) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            Timer.builder(METRIC_NAME)
+                    .description("Time a pooled database connection is held")
+                    .tag("endpoint", currentEndpoint())
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private String currentEndpoint() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+                return "background";
+            }
+            HttpServletRequest request = servletAttributes.getRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return pattern != null ? request.getMethod() + " " + pattern : "filter";
+        }
+    }
+}
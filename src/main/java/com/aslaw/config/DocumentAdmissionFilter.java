@@ -0,0 +1,183 @@
+package com.aslaw.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Memory-aware admission control for /api/documents/**.
+ * Every request reserves an estimated number of bytes from a global budget
+ * (request body size times a per-endpoint factor, a fixed amount for
+ * streamed downloads) and waits up to {@code max-wait-ms} for it. When the
+ * budget stays exhausted the request is rejected with 503 and Retry-After.
+ * Reservations are released when the request, or its async response, completes.
+ */
+@Slf4j
+@Component
+public class DocumentAdmissionFilter extends OncePerRequestFilter {
+
+    private static final long KB = 1024;
+
+    private final Semaphore budget;
+    private final int totalPermits;
+    private final Counter rejected;
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.admission.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    @Value("${app.admission.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    @Value("${app.admission.base64-factor:0.1}")
+    private double base64Factor;
+
+    @Value("${app.admission.body-factor:1}")
+    private double bodyFactor;
+
+    @Value("${app.admission.unknown-length-bytes:8388608}")
+    private long unknownLengthBytes;
+
+    @Value("${app.admission.download-bytes:1048576}")
+    private long downloadBytes;
+
+    @Value("${app.admission.min-bytes:65536}")
+    private long minBytes;
+
+    public DocumentAdmissionFilter(@Value("${app.admission.budget-bytes:134217728}") long budgetBytes,
+                                   MeterRegistry meterRegistry) {
+        // Permits are kilobytes so budgets beyond 2GB still fit in an int
+        this.totalPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, budgetBytes / KB));
+        this.budget = new Semaphore(totalPermits, true);
+
+        Gauge.builder("documents.admission.utilisation", this, DocumentAdmissionFilter::getUtilisation)
+                .description("Share of the document request memory budget currently reserved")
+                .register(meterRegistry);
+        Gauge.builder("documents.admission.reserved.bytes", this, filter -> (double) filter.getReservedBytes())
+                .description("Bytes currently reserved by document requests")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("documents.admission.rejected")
+                .description("Document requests rejected because the memory budget was exhausted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + "/api/documents");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int permits = permitsFor(request);
+        boolean acquired;
+        try {
+            acquired = budget.tryAcquire(permits, maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.warn("⚠️ Document request rejected, memory budget exhausted: {} {}", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server is busy processing documents, please retry later\"}");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                budget.release(permits);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streamed responses keep their reservation until the async write finishes
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * Estimated bytes the request keeps in memory, in permits (KB), never more than the whole budget
+     */
+    private int permitsFor(HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        String uri = request.getRequestURI();
+        long bytes;
+        if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+            bytes = uri.contains("/download") ? downloadBytes : minBytes;
+        } else if (contentLength < 0) {
+            bytes = unknownLengthBytes;
+        } else if (uri.endsWith("/create-base64") || uri.endsWith("/import-zip")) {
+            // Both bodies are decoded as a stream straight into storage
+            bytes = (long) (contentLength * base64Factor);
+        } else {
+            bytes = (long) (contentLength * bodyFactor);
+        }
+        long permits = Math.max(bytes, minBytes) / KB;
+        return (int) Math.max(1, Math.min(permits, totalPermits));
+    }
+
+    public double getUtilisation() {
+        return (double) (totalPermits - budget.availablePermits()) / totalPermits;
+    }
+
+    public long getReservedBytes() {
+        return (long) (totalPermits - budget.availablePermits()) * KB;
+    }
+
+    /**
+     * Releases the reservation once the async request completes, fails or times out
+     */
+    private static class ReleasingAsyncListener implements AsyncListener {
+        private final Runnable release;
+
+        private ReleasingAsyncListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) { release.run(); }
+
+        @Override
+        public void onTimeout(AsyncEvent event) { release.run(); }
+
+        @Override
+        public void onError(AsyncEvent event) { release.run(); }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.aslaw.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves legacy documents.base64_content values into the document_contents table.
+ * Liquibase does this in v1.9, but most environments run with ddl-auto=update,
+ * which creates the new table without copying the data. It also switches
+ * document_contents.base64_content to STORAGE EXTERNAL on PostgreSQL (v1.9.8),
+ * so windowed SUBSTRING reads do not decompress the whole value. Existing
+ * values keep their old storage until Base64MigrationService rewrites them.
+ */
+@Component
+@Order(3)
+public class DocumentContentMigration implements CommandLineRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        try {
+            useExternalStorage();
+            if (!legacyColumnExists()) {
+                return;
+            }
+
+            int moved = jdbcTemplate.update(
+                "INSERT INTO document_contents (document_id, base64_content) " +
+                "SELECT d.id, d.base64_content FROM documents d " +
+                "WHERE d.base64_content IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM document_contents c WHERE c.document_id = d.id)");
+            jdbcTemplate.update("UPDATE documents SET base64_content = NULL WHERE base64_content IS NOT NULL");
+
+            if (moved > 0) {
+                System.out.println("DocumentContentMigration: Moved base64 content of " + moved + " documents to document_contents");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ DocumentContentMigration failed: " + e.getMessage());
+        }
+    }
+
+    private void useExternalStorage() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return;
+        }
+        String storage = jdbcTemplate.query(
+            "SELECT a.attstorage FROM pg_attribute a " +
+            "WHERE a.attrelid = to_regclass('document_contents') AND a.attname = 'base64_content'",
+            rs -> rs.next() ? rs.getString(1) : null);
+        if (storage == null || "e".equals(storage)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE document_contents ALTER COLUMN base64_content SET STORAGE EXTERNAL");
+        // Only values written from now on follow the new setting; existing ones are rewritten by the
+        // throttled background job (POST /actuator/documentmigration with job=rewrite), never at startup
+        System.out.println("DocumentContentMigration: Switched base64_content to external storage");
+    }
+
+    private boolean legacyColumnExists() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE LOWER(table_name) = 'documents' AND LOWER(column_name) = 'base64_content'",
+            Integer.class);
+        return count != null && count > 0;
+    }
+}
@@ -6,12 +6,18 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class FileUploadConfig {
 
+    // "database" streams uploads into chunked binary storage, "local" into files under uploadDir,
+    // "base64" keeps the legacy TEXT column
     @Value("${app.upload.provider:local}")
     private String uploadProvider;
 
     @Value("${app.upload.dir:/app/uploads}")
     private String uploadDir;
 
+    // Local object store directory (cold storage tier)
+    @Value("${app.storage.object.dir:/app/object-store}")
+    private String objectStoreDir;
+
     // ImgBB Configuration (Free unlimited image hosting)
     @Value("${imgbb.api.key:}")
     private String imgbbApiKey;
@@ -26,6 +32,7 @@ public class FileUploadConfig {
     // Getters
     public String getUploadProvider() { return uploadProvider; }
     public String getUploadDir() { return uploadDir; }
+    public String getObjectStoreDir() { return objectStoreDir; }
     public String getImgbbApiKey() { return imgbbApiKey; }
     public String getSupabaseUrl() { return supabaseUrl; }
     public String getSupabaseAnonKey() { return supabaseAnonKey; }
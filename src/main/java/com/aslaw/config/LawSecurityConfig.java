@@ -81,7 +81,9 @@ public class LawSecurityConfig {
                 // Documentation
                 .requestMatchers("/swagger-ui/**", "/api-docs/**").permitAll()
                 
-                // Health checks
+                // Health checks (operational endpoints are admin only)
+                .requestMatchers("/actuator/documentmigration/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/documentaccess/**").hasRole("ADMIN")
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/health/**").permitAll()
                 .requestMatchers("/test/**").permitAll()
@@ -0,0 +1,12 @@
+package com.aslaw.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables background jobs (storage tiering, maintenance tasks)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
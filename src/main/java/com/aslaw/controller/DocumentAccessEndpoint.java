@@ -0,0 +1,28 @@
+package com.aslaw.controller;
+
+import com.aslaw.service.DocumentAccessTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint listing the hottest documents by recent downloads (approximate counts)
+ */
+@Component
+@Endpoint(id = "documentaccess")
+@RequiredArgsConstructor
+public class DocumentAccessEndpoint {
+
+    private final DocumentAccessTracker accessTracker;
+
+    @ReadOperation
+    public Map<String, Object> top(@Nullable Integer limit) {
+        List<Map<String, Object>> documents = accessTracker.getTopDocuments(limit != null ? limit : 20);
+        return Map.of("documents", documents);
+    }
+}
@@ -0,0 +1,101 @@
+package com.aslaw.controller;
+
+import com.aslaw.entity.Case;
+import com.aslaw.entity.Document;
+import com.aslaw.service.CaseService;
+import com.aslaw.service.DocumentArchiveService;
+import com.infracore.entity.User;
+import com.infracore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ZIP export of all documents of a case or of a client, streamed from storage
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class DocumentArchiveController {
+
+    private final DocumentArchiveService archiveService;
+    private final CaseService caseService;
+    private final UserRepository userRepository;
+
+    /**
+     * Download all documents of a case as one ZIP archive
+     */
+    @GetMapping("/cases/{caseId}/documents/archive")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER') or hasRole('CLERK') or hasRole('CLIENT') or hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> downloadCaseArchive(@PathVariable Long caseId, Authentication authentication) {
+        try {
+            Optional<Case> caseOpt = caseService.getCaseById(caseId);
+            if (caseOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Case legalCase = caseOpt.get();
+            boolean ownCase = legalCase.getClient() != null && legalCase.getClient().getId().equals(currentUser(authentication).getId());
+            if (!isStaff(authentication) && !ownCase) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            List<Document> documents = archiveService.getCaseDocuments(caseId);
+            String name = legalCase.getCaseNumber() != null ? legalCase.getCaseNumber() : "case-" + caseId;
+            return archiveResponse(name + "-documents.zip", documents, false);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    /**
+     * Download all documents of all of a client's cases as one ZIP archive (one folder per case)
+     */
+    @GetMapping("/clients/{clientId}/documents/archive")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER') or hasRole('CLERK') or hasRole('CLIENT') or hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> downloadClientArchive(@PathVariable Long clientId, Authentication authentication) {
+        try {
+            if (!isStaff(authentication) && !clientId.equals(currentUser(authentication).getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            List<Document> documents = archiveService.getClientDocuments(clientId);
+            return archiveResponse("client-" + clientId + "-documents.zip", documents, true);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> archiveResponse(String fileName, List<Document> documents, boolean folderPerCase) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+
+        // Size is unknown up front, the archive is sent chunked
+        StreamingResponseBody body = outputStream -> archiveService.writeArchive(documents, folderPerCase, outputStream);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Current user not found"));
+    }
+
+    /**
+     * Admin, Lawyer and Clerk can access all cases
+     */
+    private boolean isStaff(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN")
+                        || auth.getAuthority().equals("ROLE_LAWYER")
+                        || auth.getAuthority().equals("ROLE_CLERK"));
+    }
+}
@@ -1,37 +1,67 @@
 package com.aslaw.controller;
 
 import com.aslaw.dto.DocumentDTO;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.aslaw.entity.Document;
+import com.aslaw.service.Base64DocumentIngestService;
+import com.aslaw.service.ContentProofService;
+import com.aslaw.service.DocumentAccessTracker;
+import com.aslaw.service.DocumentBatchUploadService;
 import com.aslaw.service.DocumentService;
+import com.aslaw.service.DocumentThumbnailService;
+import com.aslaw.service.DocumentZipImportService;
+import com.aslaw.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import com.aslaw.entity.DocumentThumbnail;
 import org.springframework.http.HttpStatus;
 import com.infracore.entity.User;
 import com.infracore.repository.UserRepository;
 import com.aslaw.service.CaseService;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/documents")
 @RequiredArgsConstructor
 public class DocumentController {
 
+    // Tomcat sendfile request attributes (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     private final DocumentService documentService;
+    private final Base64DocumentIngestService base64DocumentIngestService;
+    private final DocumentBatchUploadService documentBatchUploadService;
+    private final DocumentZipImportService documentZipImportService;
+    private final IdempotencyService idempotencyService;
+    private final DocumentAccessTracker documentAccessTracker;
+    private final DocumentThumbnailService documentThumbnailService;
     private final UserRepository userRepository;
     private final CaseService caseService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Get all documents
@@ -101,11 +131,16 @@ public class DocumentController {
             @RequestParam("title") String title,
             @RequestParam("type") Document.DocumentType type,
             @RequestParam("legalCaseId") Long caseId,
-            @RequestParam(value = "description", required = false) String description) {
+            @RequestParam(value = "description", required = false) String description,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
         
         try {
-            DocumentDTO documentDTO = documentService.uploadDocument(file, title, description, type, caseId);
+            DocumentDTO documentDTO = idempotencyService.execute(idempotencyScope(authentication, "upload"), idempotencyKey,
+                () -> documentService.uploadDocument(file, title, description, type, caseId));
             return ResponseEntity.ok(documentDTO);
+        } catch (IdempotencyService.RequestInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
@@ -116,22 +151,77 @@ public class DocumentController {
     }
 
     /**
-     * Create document from base64 (for Angular integration)
+     * Upload many files into one case; each file becomes a document titled after its file name.
+     * Files succeed or fail individually, the response lists one result per file.
+     */
+    @PostMapping("/upload-batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> uploadDocuments(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("legalCaseId") Long caseId,
+            @RequestParam(value = "type", defaultValue = "OTHER") Document.DocumentType type,
+            @RequestParam(value = "description", required = false) String description) {
+
+        try {
+            List<DocumentBatchUploadService.BatchUploadResult> results =
+                documentBatchUploadService.uploadDocuments(files, type, caseId, description);
+            long uploaded = results.stream().filter(DocumentBatchUploadService.BatchUploadResult::isSuccess).count();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("uploaded", uploaded);
+            response.put("failed", results.size() - uploaded);
+            response.put("results", results);
+            return ResponseEntity.status(uploaded == results.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Upload failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Import a ZIP archive (raw application/zip body) into a case, one document per file.
+     * The archive is read as a stream; limits against zip bombs stop the import early.
+     */
+    @PostMapping(value = "/import-zip", consumes = "application/zip")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> importZip(@RequestParam("legalCaseId") Long caseId, HttpServletRequest request) {
+        try {
+            DocumentZipImportService.ZipImportResult result = documentZipImportService.importArchive(request.getInputStream(), caseId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("imported", result.getImported());
+            response.put("failed", result.getFailed());
+            response.put("results", result.getResults());
+            if (result.getAbortReason() != null) {
+                response.put("error", result.getAbortReason());
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+            }
+            return ResponseEntity.status(result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(response);
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "File processing error: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Import failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Create document from base64 (for Angular integration).
+     * The JSON body is parsed as a stream and the content decoded straight into storage.
      */
-    @PostMapping("/create-base64")
+    @PostMapping(value = "/create-base64", consumes = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
-    public ResponseEntity<?> createDocumentFromBase64(@RequestBody CreateBase64DocumentRequest request) {
+    public ResponseEntity<?> createDocumentFromBase64(
+            HttpServletRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
         try {
-            DocumentDTO documentDTO = documentService.createDocumentFromBase64(
-                request.getTitle(),
-                request.getDescription(),
-                request.getType(),
-                request.getLegalCaseId(),
-                request.getFileName(),
-                request.getContentType(),
-                request.getBase64Content()
-            );
+            // A replayed key returns before the body is read
+            DocumentDTO documentDTO = idempotencyService.execute(idempotencyScope(authentication, "create-base64"), idempotencyKey,
+                () -> base64DocumentIngestService.ingest(request.getInputStream()));
             return ResponseEntity.ok(documentDTO);
+        } catch (IdempotencyService.RequestInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
@@ -140,7 +230,61 @@ public class DocumentController {
     }
 
     /**
-     * Download document as base64
+     * Hash-first upload negotiation: when content with the given SHA-256 and size is
+     * already stored, the document is created without a transfer ("created");
+     * otherwise the client proceeds with a normal upload ("upload-required").
+     * Unless the caller can access a case already holding the content, the first
+     * answer is "proof-required" with a challenge (id, base64 nonce, [offset, length]
+     * ranges); the client repeats the request with challengeId and
+     * proof = hex(SHA-256(nonce || the bytes of each range in order)).
+     */
+    @PostMapping("/upload-negotiation")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> negotiateUpload(
+            @RequestBody UploadNegotiationRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        try {
+            if (request.getFileSize() == null || request.getLegalCaseId() == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "fileSize and legalCaseId are required"));
+            }
+            DocumentDTO document = idempotencyService.execute(idempotencyScope(authentication, "upload-negotiation"), idempotencyKey,
+                () -> documentService.createDocumentFromExistingContent(
+                    request.getTitle(),
+                    request.getDescription(),
+                    request.getType(),
+                    request.getLegalCaseId(),
+                    request.getFileName(),
+                    request.getContentType(),
+                    request.getSha256(),
+                    request.getFileSize(),
+                    caseId -> hasAccessToCase(caseId, authentication),
+                    request.getChallengeId(),
+                    request.getProof()
+                ).orElse(null));
+            if (document != null) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "status", "created",
+                    "document", document
+                ));
+            }
+            return ResponseEntity.ok(Map.of("status", "upload-required"));
+        } catch (ContentProofService.ProofRequiredException e) {
+            return ResponseEntity.ok(Map.of(
+                "status", "proof-required",
+                "challenge", e.getChallenge()
+            ));
+        } catch (IdempotencyService.RequestInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Upload negotiation failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Download document as base64 (JSON body is streamed, content is encoded incrementally)
      */
     @GetMapping("/{id}/download-base64")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER') or hasRole('CLIENT') or hasRole('USER')")
@@ -157,13 +301,22 @@ public class DocumentController {
             if (!hasAccessToCase(document.getLegalCase().getId(), authentication)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
+            documentAccessTracker.recordAccess(id);
             
-            String base64Content = documentService.downloadDocumentAsBase64(id);
-            return ResponseEntity.ok(Map.of(
-                "base64Content", base64Content,
-                "fileName", document.getFileName(),
-                "contentType", document.getContentType()
-            ));
+            StreamingResponseBody body = outputStream -> {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+                     InputStream inputStream = documentService.openDocumentContent(document, 0, document.getFileSize())) {
+                    generator.writeStartObject();
+                    generator.writeStringField("fileName", document.getFileName());
+                    generator.writeStringField("contentType", document.getContentType());
+                    generator.writeFieldName("base64Content");
+                    generator.writeBinary(Base64Variants.MIME_NO_LINEFEEDS, inputStream, document.getFileSize().intValue());
+                    generator.writeEndObject();
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
         } catch (RuntimeException e) {
             return ResponseEntity.status(404).body("Document not found: " + e.getMessage());
         } catch (Exception e) {
@@ -172,11 +325,14 @@ public class DocumentController {
     }
 
     /**
-     * Download document as resource (file download)
+     * Download document as file stream (supports Range / If-Range partial requests)
      */
     @GetMapping("/{id}/download")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER') or hasRole('CLIENT') or hasRole('USER')")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<StreamingResponseBody> downloadDocument(@PathVariable Long id,
+                                                                  @RequestHeader HttpHeaders requestHeaders,
+                                                                  HttpServletRequest request,
+                                                                  Authentication authentication) {
         try {
             Optional<Document> documentOpt = documentService.getDocumentById(id);
             if (documentOpt.isEmpty()) {
@@ -190,15 +346,57 @@ public class DocumentController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
             
-            Resource resource = documentService.downloadDocumentAsResource(id);
+            long fileSize = document.getFileSize();
+            String eTag = contentETag(document);
             
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getFileName() + "\"");
             headers.add(HttpHeaders.CONTENT_TYPE, document.getContentType());
+            headers.add(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.setETag(eTag);
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            long start = 0;
+            long end = fileSize - 1;
+            HttpRange range;
+            try {
+                range = resolveRange(requestHeaders, eTag);
+                if (range != null) {
+                    start = range.getRangeStart(fileSize);
+                    end = range.getRangeEnd(fileSize);
+                }
+            } catch (IllegalArgumentException e) {
+                headers.add(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            
+            long offset = start;
+            long length = fileSize == 0 ? 0 : end - start + 1;
+            if (offset == 0) {
+                // Resumed or seeking range requests are not counted again
+                documentAccessTracker.recordAccess(id);
+            }
+            headers.setContentLength(length);
+            HttpStatus status = HttpStatus.OK;
+            if (range != null) {
+                headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+                status = HttpStatus.PARTIAL_CONTENT;
+            }
+            
+            // Local files: let Tomcat send the file with sendfile once the headers are written.
+            // Only an existing local or disk cached file is used here, never a synchronous cache fill.
+            if (length > 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+                Path localPath = documentService.getLocalContentPath(document);
+                if (localPath != null) {
+                    request.setAttribute(SENDFILE_FILENAME_ATTR, localPath.toString());
+                    request.setAttribute(SENDFILE_START_ATTR, offset);
+                    request.setAttribute(SENDFILE_END_ATTR, offset + length);
+                    return ResponseEntity.status(status).headers(headers).build();
+                }
+            }
+            
+            StreamingResponseBody body = outputStream ->
+                    documentService.writeDocumentContent(document, offset, length, outputStream);
+            return ResponseEntity.status(status).headers(headers).body(body);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -206,6 +404,55 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Thumbnail of an image document. Content never changes, so it may be cached for a year;
+     * 202 with Retry-After while it is still being generated.
+     */
+    @GetMapping("/{id}/thumbnail")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER') or hasRole('CLIENT') or hasRole('USER')")
+    public ResponseEntity<?> getThumbnail(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          Authentication authentication) {
+        try {
+            Optional<Document> documentOpt = documentService.getDocumentById(id);
+            if (documentOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Document document = documentOpt.get();
+            
+            // Check if user has access to this document's case
+            if (!hasAccessToCase(document.getLegalCase().getId(), authentication)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            
+            String eTag = "\"thumbnail-" + id + "\"";
+            CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+            if (eTag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+            }
+            
+            Optional<DocumentThumbnail> thumbnail = documentThumbnailService.getThumbnail(id);
+            if (thumbnail.isPresent()) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(thumbnail.get().getContentType()))
+                        .eTag(eTag)
+                        .cacheControl(cacheControl)
+                        .body(thumbnail.get().getData());
+            }
+            
+            // Not generated yet (or dropped from a full queue): generate it now
+            if (documentThumbnailService.scheduleThumbnail(id, document.getContentType(), document.getFileSize())) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header(HttpHeaders.RETRY_AFTER, "2")
+                        .body(Map.of("message", "Thumbnail is being generated"));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
     /**
      * Update document metadata
      */
@@ -283,7 +530,10 @@ public class DocumentController {
             response.put("base64Documents", stats.getBase64Documents());
             response.put("totalSizeBytes", stats.getTotalSizeBytes());
             response.put("totalSizeMB", stats.getTotalSizeMB());
-            response.put("storageType", "base64");
+            response.put("storedSizeBytes", stats.getStoredSizeBytes());
+            response.put("storedSizeMB", stats.getStoredSizeMB());
+            response.put("storageRatio", stats.getStorageRatio());
+            response.put("storageType", documentService.getStorageType());
             response.put("timestamp", System.currentTimeMillis());
             
             return ResponseEntity.ok(response);
@@ -300,10 +550,10 @@ public class DocumentController {
     @GetMapping("/config")
     public ResponseEntity<Map<String, Object>> getConfig() {
         Map<String, Object> config = new HashMap<>();
-        config.put("storageType", "base64");
+        config.put("storageType", documentService.getStorageType());
         config.put("features", Map.of(
             "inDatabaseStorage", true,
-            "fileSystemStorage", false,
+            "fileSystemStorage", DocumentService.STORAGE_LOCAL.equals(documentService.getStorageType()),
             "cloudStorage", false,
             "base64Upload", true,
             "base64Download", true
@@ -393,6 +643,37 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Idempotency keys are scoped per user and endpoint
+     */
+    private String idempotencyScope(Authentication authentication, String endpoint) {
+        return authentication.getName() + ":" + endpoint;
+    }
+
+    /**
+     * Single requested range, or null when the whole file should be sent
+     * (no Range header, multiple ranges, or an If-Range validator that no longer matches)
+     */
+    private HttpRange resolveRange(HttpHeaders requestHeaders, String eTag) {
+        List<HttpRange> ranges = requestHeaders.getRange();
+        if (ranges.size() != 1) {
+            return null;
+        }
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            return null;
+        }
+        return ranges.get(0);
+    }
+
+    /**
+     * Strong validator for the document content (content never changes after upload)
+     */
+    private String contentETag(Document document) {
+        String tag = document.getContentHash() != null ? document.getContentHash() : "document-" + document.getId();
+        return "\"" + tag + "\"";
+    }
+
     /**
      * Utility method to format file size
      */
@@ -405,14 +686,17 @@ public class DocumentController {
     }
 
     // DTOs for request/response
-    public static class CreateBase64DocumentRequest {
+    public static class UploadNegotiationRequest {
         private String title;
         private String description;
         private Document.DocumentType type;
         private Long legalCaseId;
         private String fileName;
         private String contentType;
-        private String base64Content;
+        private String sha256;
+        private Long fileSize;
+        private String challengeId;
+        private String proof;
 
         // Getters and setters
         public String getTitle() { return title; }
@@ -433,8 +717,17 @@ public class DocumentController {
         public String getContentType() { return contentType; }
         public void setContentType(String contentType) { this.contentType = contentType; }
 
-        public String getBase64Content() { return base64Content; }
-        public void setBase64Content(String base64Content) { this.base64Content = base64Content; }
+        public String getSha256() { return sha256; }
+        public void setSha256(String sha256) { this.sha256 = sha256; }
+
+        public Long getFileSize() { return fileSize; }
+        public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+        public String getChallengeId() { return challengeId; }
+        public void setChallengeId(String challengeId) { this.challengeId = challengeId; }
+
+        public String getProof() { return proof; }
+        public void setProof(String proof) { this.proof = proof; }
     }
 
     public static class UpdateDocumentRequest {
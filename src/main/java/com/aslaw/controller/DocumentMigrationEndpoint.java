@@ -0,0 +1,49 @@
+package com.aslaw.controller;
+
+import com.aslaw.service.Base64MigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the base64 to binary storage migration:
+ * GET shows progress, POST starts the job (or the base64 value rewrite with
+ * job=rewrite), DELETE stops it.
+ */
+@Component
+@Endpoint(id = "documentmigration")
+@RequiredArgsConstructor
+public class DocumentMigrationEndpoint {
+
+    private final Base64MigrationService migrationService;
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return migrationService.getProgress();
+    }
+
+    /**
+     * job=rewrite re-stores the remaining base64 values instead of migrating them
+     */
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String job) {
+        boolean rewrite = "rewrite".equals(job);
+        boolean started = rewrite ? migrationService.startRewrite() : migrationService.start();
+        return Map.of(
+            "started", started,
+            "message", started ? (rewrite ? "Rewrite started" : "Migration started") : "Migration is already running"
+        );
+    }
+
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        migrationService.stop();
+        return Map.of("message", "Migration will stop after the current document");
+    }
+}
@@ -0,0 +1,182 @@
+package com.aslaw.controller;
+
+import com.aslaw.dto.DocumentDTO;
+import com.aslaw.entity.Document;
+import com.aslaw.entity.UploadSession;
+import com.aslaw.service.IdempotencyService;
+import com.aslaw.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable upload API: init a session, PUT chunks at increasing offsets
+ * (resuming from the offset reported by GET), then commit to create the document.
+ */
+@RestController
+@RequestMapping("/api/documents/upload-sessions")
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Start an upload session
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> createSession(@RequestBody CreateUploadSessionRequest request, Authentication authentication) {
+        try {
+            UploadSession session = uploadSessionService.createSession(
+                request.getTitle(),
+                request.getDescription(),
+                request.getType(),
+                request.getLegalCaseId(),
+                request.getFileName(),
+                request.getContentType(),
+                request.getTotalSize(),
+                authentication.getName()
+            );
+            return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(session));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Could not create upload session: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Session status; {@code offset} is where the client resumes
+     */
+    @GetMapping("/{sessionId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> getSession(@PathVariable String sessionId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(toResponse(uploadSessionService.getSession(sessionId, authentication.getName())));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Upload a chunk (raw request body) at the given offset
+     */
+    @PutMapping("/{sessionId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> uploadChunk(@PathVariable String sessionId,
+                                         @RequestParam("offset") long offset,
+                                         HttpServletRequest request,
+                                         Authentication authentication) {
+        try {
+            long newOffset = uploadSessionService.appendChunk(sessionId, offset, request.getContentLengthLong(),
+                    request.getInputStream(), authentication.getName());
+            return ResponseEntity.ok(Map.of("sessionId", sessionId, "offset", newOffset));
+        } catch (UploadSessionService.OffsetMismatchException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Offset mismatch",
+                "offset", e.getCurrentOffset()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Chunk upload interrupted: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Assemble the uploaded chunks into a document
+     */
+    @PostMapping("/{sessionId}/commit")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> commit(@PathVariable String sessionId,
+                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                    Authentication authentication) {
+        try {
+            DocumentDTO documentDTO = idempotencyService.execute(authentication.getName() + ":upload-session-commit",
+                    idempotencyKey, () -> uploadSessionService.commit(sessionId, authentication.getName()));
+            return ResponseEntity.ok(documentDTO);
+        } catch (IdempotencyService.RequestInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Commit failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Abort an upload session
+     */
+    @DeleteMapping("/{sessionId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAWYER')")
+    public ResponseEntity<?> cancel(@PathVariable String sessionId, Authentication authentication) {
+        try {
+            uploadSessionService.cancel(sessionId, authentication.getName());
+            return ResponseEntity.ok(Map.of("message", "Upload session cancelled"));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> toResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionId", session.getId());
+        response.put("fileName", session.getFileName());
+        response.put("totalSize", session.getTotalSize());
+        response.put("offset", session.getReceivedBytes());
+        response.put("maxChunkSize", uploadSessionService.getMaxChunkSize());
+        response.put("expiresAt", session.getExpiresAt());
+        return response;
+    }
+
+    public static class CreateUploadSessionRequest {
+        private String title;
+        private String description;
+        private Document.DocumentType type;
+        private Long legalCaseId;
+        private String fileName;
+        private String contentType;
+        private Long totalSize;
+
+        // Getters and setters
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+
+        public Document.DocumentType getType() { return type; }
+        public void setType(Document.DocumentType type) { this.type = type; }
+
+        public Long getLegalCaseId() { return legalCaseId; }
+        public void setLegalCaseId(Long legalCaseId) { this.legalCaseId = legalCaseId; }
+
+        public String getFileName() { return fileName; }
+        public void setFileName(String fileName) { this.fileName = fileName; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+
+        public Long getTotalSize() { return totalSize; }
+        public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+    }
+}
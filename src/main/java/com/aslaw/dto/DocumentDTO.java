@@ -12,8 +12,8 @@ public class DocumentDTO {
     private String description;
     private Document.DocumentType type;
     private String publicUrl;
+    private String storageType;
     // Temporarily disabled until database migration is applied
-    // private String storageType;
     // private Boolean isPrivate;
     private String base64Content; // Only populated when specifically requested
     private LocalDateTime createdDate;
@@ -44,8 +44,8 @@ public class DocumentDTO {
         this.description = document.getDescription();
         this.type = document.getType();
         this.publicUrl = document.getPublicUrl();
+        this.storageType = document.getStorageType();
         // Temporarily disabled until database migration is applied
-        // this.storageType = document.getStorageType();
         // this.isPrivate = document.getIsPrivate();
         this.createdDate = document.getCreatedDate();
         this.updatedDate = document.getUpdatedDate();
@@ -94,10 +94,10 @@ public class DocumentDTO {
     public String getPublicUrl() { return publicUrl; }
     public void setPublicUrl(String publicUrl) { this.publicUrl = publicUrl; }
 
-    // Temporarily disabled until database migration is applied
-    // public String getStorageType() { return storageType; }
-    // public void setStorageType(String storageType) { this.storageType = storageType; }
+    public String getStorageType() { return storageType; }
+    public void setStorageType(String storageType) { this.storageType = storageType; }
 
+    // Temporarily disabled until database migration is applied
     // public Boolean getIsPrivate() { return isPrivate; }
     // public void setIsPrivate(Boolean isPrivate) { this.isPrivate = isPrivate; }
 
@@ -5,12 +5,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "documents")
+@SQLRestriction("deleted = false") // Soft deleted documents are hidden until the purger removes them
 @NoArgsConstructor
 @AllArgsConstructor
 public class Document {
@@ -40,14 +42,28 @@ public class Document {
     @Column(name = "public_url")
     private String publicUrl; // Keep for external links
     
-    @Lob
-    @Column(name = "base64_content", columnDefinition = "TEXT")
-    private String base64Content; // New: Base64 encoded file content
+    @Column(name = "storage_type")
+    private String storageType = "base64"; // "base64" (see DocumentContent), "database"
     
-    // Temporarily disabled until database migration is applied
-    // @Column(name = "storage_type")
-    // private String storageType = "base64"; // "base64", "local", "cloudinary"
+    @Column(name = "storage_key", length = 100)
+    private String storageKey; // Key of the binary content in the selected storage
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 of the content, references DocumentBlob
+    
+    @Column(name = "compression_codec", length = 20)
+    private String compressionCodec; // e.g. "deflate"; null when stored uncompressed
+    
+    @Column(name = "stored_size")
+    private Long storedSize; // Bytes held by the storage backend (fileSize is the original size)
     
+    @Column(name = "deleted", nullable = false, columnDefinition = "boolean default false")
+    private Boolean deleted = false;
+    
+    @Column(name = "deleted_date")
+    private LocalDateTime deletedDate;
+    
+    // Temporarily disabled until database migration is applied
     // @Column(name = "is_private")
     // private Boolean isPrivate = true; // true for base64 storage
     
@@ -103,13 +119,28 @@ public class Document {
     public String getPublicUrl() { return publicUrl; }
     public void setPublicUrl(String publicUrl) { this.publicUrl = publicUrl; }
 
-    public String getBase64Content() { return base64Content; }
-    public void setBase64Content(String base64Content) { this.base64Content = base64Content; }
+    public String getStorageType() { return storageType; }
+    public void setStorageType(String storageType) { this.storageType = storageType; }
 
-    // Temporarily disabled until database migration is applied
-    // public String getStorageType() { return storageType; }
-    // public void setStorageType(String storageType) { this.storageType = storageType; }
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getCompressionCodec() { return compressionCodec; }
+    public void setCompressionCodec(String compressionCodec) { this.compressionCodec = compressionCodec; }
+
+    public Long getStoredSize() { return storedSize; }
+    public void setStoredSize(Long storedSize) { this.storedSize = storedSize; }
 
+    public Boolean getDeleted() { return deleted; }
+    public void setDeleted(Boolean deleted) { this.deleted = deleted; }
+
+    public LocalDateTime getDeletedDate() { return deletedDate; }
+    public void setDeletedDate(LocalDateTime deletedDate) { this.deletedDate = deletedDate; }
+
+    // Temporarily disabled until database migration is applied
     // public Boolean getIsPrivate() { return isPrivate; }
     // public void setIsPrivate(Boolean isPrivate) { this.isPrivate = isPrivate; }
 
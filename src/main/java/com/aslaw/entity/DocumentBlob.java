@@ -0,0 +1,84 @@
+package com.aslaw.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed document content, keyed by the SHA-256 of the file bytes.
+ * Identical uploads share one blob; the blob is released when its last
+ * referencing document is deleted.
+ */
+@Entity
+@Table(name = "document_blobs")
+@NoArgsConstructor
+public class DocumentBlob {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash; // Hex encoded SHA-256
+
+    @Column(name = "storage_type", nullable = false)
+    private String storageType;
+
+    @Column(name = "storage_key", nullable = false, length = 100)
+    private String storageKey;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes; // Original (logical) size
+
+    @Column(name = "codec", length = 20)
+    private String codec; // Compression codec, null when stored uncompressed
+
+    @Column(name = "stored_bytes")
+    private Long storedBytes; // Bytes actually held by the storage backend
+
+    @Column(name = "reference_count", nullable = false)
+    private Integer referenceCount = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    public DocumentBlob(String hash, String storageType, String storageKey, Long sizeBytes, String codec, Long storedBytes) {
+        this.hash = hash;
+        this.storageType = storageType;
+        this.storageKey = storageKey;
+        this.sizeBytes = sizeBytes;
+        this.codec = codec;
+        this.storedBytes = storedBytes;
+        this.referenceCount = 1;
+    }
+
+    // Getters and Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public String getStorageType() { return storageType; }
+    public void setStorageType(String storageType) { this.storageType = storageType; }
+
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public String getCodec() { return codec; }
+    public void setCodec(String codec) { this.codec = codec; }
+
+    public Long getStoredBytes() { return storedBytes; }
+    public void setStoredBytes(Long storedBytes) { this.storedBytes = storedBytes; }
+
+    /**
+     * Stored size, falling back to the original size for blobs written before compression
+     */
+    public long getStoredOrOriginalBytes() { return storedBytes != null ? storedBytes : sizeBytes; }
+
+    public Integer getReferenceCount() { return referenceCount; }
+    public void setReferenceCount(Integer referenceCount) { this.referenceCount = referenceCount; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+}
@@ -0,0 +1,49 @@
+package com.aslaw.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fixed-size slice of a document's binary content.
+ * A document stored with the "database" provider is split into ordered chunks
+ * sharing the same storage key, so content is never held in memory as a whole.
+ */
+@Entity
+@Table(name = "document_chunks",
+       uniqueConstraints = @UniqueConstraint(name = "uk_document_chunks_key_index",
+                                             columnNames = {"storage_key", "chunk_index"}))
+@NoArgsConstructor
+public class DocumentChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "storage_key", nullable = false, length = 100)
+    private String storageKey;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    public DocumentChunk(String storageKey, Integer chunkIndex, byte[] data) {
+        this.storageKey = storageKey;
+        this.chunkIndex = chunkIndex;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public Integer getChunkIndex() { return chunkIndex; }
+    public void setChunkIndex(Integer chunkIndex) { this.chunkIndex = chunkIndex; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+}
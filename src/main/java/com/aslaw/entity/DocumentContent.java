@@ -0,0 +1,32 @@
+package com.aslaw.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * Base64 content of a document, split from the documents table so that
+ * listing and metadata queries never read blob data.
+ * Only the download paths touch this entity.
+ */
+@Entity
+@Table(name = "document_contents")
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentContent {
+
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Lob
+    @Column(name = "base64_content", columnDefinition = "TEXT")
+    private String base64Content; // Base64 encoded file content
+
+    // Getters and Setters
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getBase64Content() { return base64Content; }
+    public void setBase64Content(String base64Content) { this.base64Content = base64Content; }
+}
@@ -0,0 +1,64 @@
+package com.aslaw.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Downscaled preview of an image document, generated in the background after upload.
+ * Document content never changes, so a thumbnail stays valid for the life of its document.
+ */
+@Entity
+@Table(name = "document_thumbnails")
+@NoArgsConstructor
+public class DocumentThumbnail {
+
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "height", nullable = false)
+    private Integer height;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @CreationTimestamp
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    public DocumentThumbnail(Long documentId, String contentType, Integer width, Integer height, byte[] data) {
+        this.documentId = documentId;
+        this.contentType = contentType;
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+}
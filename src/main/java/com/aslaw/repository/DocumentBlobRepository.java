@@ -0,0 +1,64 @@
+package com.aslaw.repository;
+
+import com.aslaw.entity.Case;
+import com.aslaw.entity.DocumentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    /**
+     * Find a blob and lock its row for reference count changes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM DocumentBlob b WHERE b.hash = :hash")
+    Optional<DocumentBlob> findByHashForUpdate(@Param("hash") String hash);
+
+    /**
+     * Blobs outside the given storage type that no recent document on an open case references,
+     * after the (createdDate, hash) cursor in that order (keyset pagination)
+     */
+    @Query("SELECT b FROM DocumentBlob b WHERE b.storageType <> :storageType " +
+           "AND (b.createdDate > :afterDate OR (b.createdDate = :afterDate AND b.hash > :afterHash)) " +
+           "AND NOT EXISTS (" +
+           "SELECT d.id FROM Document d WHERE d.contentHash = b.hash " +
+           "AND d.createdDate >= :cutoff AND d.legalCase.status <> :closedStatus) " +
+           "ORDER BY b.createdDate ASC, b.hash ASC")
+    List<DocumentBlob> findColdBlobs(@Param("storageType") String storageType,
+                                     @Param("cutoff") LocalDateTime cutoff,
+                                     @Param("closedStatus") Case.CaseStatus closedStatus,
+                                     @Param("afterDate") LocalDateTime afterDate,
+                                     @Param("afterHash") String afterHash,
+                                     Pageable pageable);
+
+    /**
+     * Bytes held by all blobs in their storage backends (after deduplication and compression)
+     */
+    @Query("SELECT COALESCE(SUM(COALESCE(b.storedBytes, b.sizeBytes)), 0) FROM DocumentBlob b")
+    long sumStoredBytes();
+
+    /**
+     * Add a reference to an existing blob, only when its original size matches as well
+     */
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.hash = :hash AND b.sizeBytes = :sizeBytes")
+    int incrementReferenceCountIfSize(@Param("hash") String hash, @Param("sizeBytes") Long sizeBytes);
+
+    /**
+     * Add a reference to an existing blob
+     */
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.hash = :hash")
+    int incrementReferenceCount(@Param("hash") String hash);
+}
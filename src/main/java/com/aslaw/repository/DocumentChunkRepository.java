@@ -0,0 +1,25 @@
+package com.aslaw.repository;
+
+import com.aslaw.entity.DocumentChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DocumentChunkRepository extends JpaRepository<DocumentChunk, Long> {
+
+    /**
+     * Load the raw bytes of a single chunk (null when the chunk does not exist)
+     */
+    @Query("SELECT c.data FROM DocumentChunk c WHERE c.storageKey = :storageKey AND c.chunkIndex = :chunkIndex")
+    byte[] findChunkData(@Param("storageKey") String storageKey, @Param("chunkIndex") Integer chunkIndex);
+
+    /**
+     * Delete all chunks stored under a key
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentChunk c WHERE c.storageKey = :storageKey")
+    int deleteByStorageKey(@Param("storageKey") String storageKey);
+}
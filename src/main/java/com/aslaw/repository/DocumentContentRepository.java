@@ -0,0 +1,49 @@
+package com.aslaw.repository;
+
+import com.aslaw.entity.DocumentContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+
+    /**
+     * Read a window of the base64 text without loading the whole value (start is 1-based)
+     */
+    @Query(value = "SELECT SUBSTRING(base64_content, :start, :length) FROM document_contents WHERE document_id = :documentId",
+           nativeQuery = true)
+    String findBase64Window(@Param("documentId") Long documentId, @Param("start") int start, @Param("length") int length);
+
+    /**
+     * Characters held by all legacy base64 contents
+     */
+    @Query(value = "SELECT COALESCE(SUM(LENGTH(base64_content)), 0) FROM document_contents", nativeQuery = true)
+    long sumBase64Length();
+
+    /**
+     * Document ids and base64 lengths after the given id, in id order (keyset pagination)
+     */
+    @Query(value = "SELECT document_id, LENGTH(base64_content) FROM document_contents " +
+                   "WHERE document_id > :afterId ORDER BY document_id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findContentLengthsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * Write the value again, so it is stored with the current column storage setting
+     */
+    @Modifying
+    @Query(value = "UPDATE document_contents SET base64_content = base64_content || '' WHERE document_id = :documentId",
+           nativeQuery = true)
+    int rewriteContent(@Param("documentId") Long documentId);
+
+    /**
+     * Delete the content of a document without loading it
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentContent c WHERE c.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
+}
@@ -1,11 +1,14 @@
 package com.aslaw.repository;
 
 import com.aslaw.entity.Document;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,4 +56,82 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
      */
     @Query("SELECT d FROM Document d LEFT JOIN FETCH d.legalCase c WHERE c.client.id = :clientId ORDER BY d.createdDate DESC")
     List<Document> findByClientId(@Param("clientId") Long clientId);
+    
+    /**
+     * Update title, description and type only; content and storage columns are never read or written
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Document d SET d.title = :title, d.description = :description, d.type = :type, " +
+           "d.updatedDate = :updatedDate WHERE d.id = :id")
+    int updateMetadata(@Param("id") Long id,
+                       @Param("title") String title,
+                       @Param("description") String description,
+                       @Param("type") Document.DocumentType type,
+                       @Param("updatedDate") LocalDateTime updatedDate);
+    
+    /**
+     * Soft delete: hide the document; content is reclaimed later by the purger
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Document d SET d.deleted = true, d.deletedDate = :deletedDate WHERE d.id = :id AND d.deleted = false")
+    int softDeleteById(@Param("id") Long id, @Param("deletedDate") LocalDateTime deletedDate);
+    
+    /**
+     * Point all documents sharing a blob to its new storage location
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.storageType = :storageType, d.storageKey = :storageKey, d.filePath = :filePath " +
+           "WHERE d.contentHash = :contentHash")
+    int updateStorageByContentHash(@Param("contentHash") String contentHash,
+                                   @Param("storageType") String storageType,
+                                   @Param("storageKey") String storageKey,
+                                   @Param("filePath") String filePath);
+    
+    /**
+     * Ids of the documents sharing a blob
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.contentHash = :contentHash")
+    List<Long> findIdsByContentHash(@Param("contentHash") String contentHash);
+    
+    /**
+     * Cases holding a document with the given content
+     */
+    @Query("SELECT DISTINCT d.legalCase.id FROM Document d WHERE d.contentHash = :contentHash")
+    List<Long> findCaseIdsByContentHash(@Param("contentHash") String contentHash);
+    
+    /**
+     * Legacy base64 documents after the given id, in id order (keyset pagination).
+     * Only documents with a content row: early local/cloudinary rows have no storage key either.
+     */
+    @Query("SELECT d FROM Document d WHERE d.id > :lastId AND d.storageKey IS NULL " +
+           "AND EXISTS (SELECT 1 FROM DocumentContent c WHERE c.documentId = d.id) ORDER BY d.id ASC")
+    List<Document> findBase64DocumentsAfter(@Param("lastId") Long lastId, Pageable pageable);
+    
+    /**
+     * Number of documents still stored as base64
+     */
+    @Query("SELECT COUNT(d) FROM Document d WHERE d.storageKey IS NULL " +
+           "AND EXISTS (SELECT 1 FROM DocumentContent c WHERE c.documentId = d.id)")
+    long countBase64Documents();
+    
+    /**
+     * Point a single document to its binary storage location
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.storageType = :storageType, d.storageKey = :storageKey, " +
+           "d.contentHash = :contentHash, d.filePath = :filePath, " +
+           "d.compressionCodec = :compressionCodec, d.storedSize = :storedSize WHERE d.id = :id")
+    int updateStorageById(@Param("id") Long id,
+                          @Param("storageType") String storageType,
+                          @Param("storageKey") String storageKey,
+                          @Param("contentHash") String contentHash,
+                          @Param("filePath") String filePath,
+                          @Param("compressionCodec") String compressionCodec,
+                          @Param("storedSize") Long storedSize);
+    
+    /**
+     * Total original size of all documents
+     */
+    @Query("SELECT COALESCE(SUM(d.fileSize), 0) FROM Document d")
+    long sumFileSize();
 }
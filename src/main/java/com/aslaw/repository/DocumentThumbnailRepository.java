@@ -0,0 +1,9 @@
+package com.aslaw.repository;
+
+import com.aslaw.entity.DocumentThumbnail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DocumentThumbnailRepository extends JpaRepository<DocumentThumbnail, Long> {
+}
@@ -0,0 +1,40 @@
+package com.aslaw.repository;
+
+import com.aslaw.entity.UploadSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * Remove a fully received session; returns 0 when it is gone or incomplete
+     */
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.receivedBytes = s.totalSize")
+    int deleteCompleted(@Param("id") String id);
+
+    /**
+     * Advance the acknowledged offset, only if no other request advanced it first
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :receivedBytes, s.expiresAt = :expiresAt, " +
+           "s.updatedDate = CURRENT_TIMESTAMP WHERE s.id = :id AND s.receivedBytes = :expectedBytes")
+    int advanceReceivedBytes(@Param("id") String id,
+                             @Param("expectedBytes") Long expectedBytes,
+                             @Param("receivedBytes") Long receivedBytes,
+                             @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Sessions that expired before the given time, oldest first
+     */
+    @Query("SELECT s FROM UploadSession s WHERE s.expiresAt < :now ORDER BY s.expiresAt ASC")
+    List<UploadSession> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,146 @@
+package com.aslaw.service;
+
+import com.aslaw.dto.DocumentDTO;
+import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentBlob;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming ingestion of the create-base64 JSON request.
+ * The body is read with a streaming parser and the base64Content field is
+ * decoded incrementally ({@link JsonParser#readBinaryValue}) straight into
+ * the blob store, which hashes, counts and optionally compresses on the fly.
+ * Neither the base64 text nor the decoded file is ever held in memory.
+ * The storage key and compression depend on legalCaseId, fileName and
+ * contentType, so those must come before base64Content (400 otherwise);
+ * title, type and description may appear anywhere.
+ */
+@Service
+public class Base64DocumentIngestService {
+
+    private final ObjectMapper objectMapper;
+    private final DocumentService documentService;
+    private final DocumentBlobStore blobStore;
+    private final DocumentCompression compression;
+
+    @Autowired
+    public Base64DocumentIngestService(ObjectMapper objectMapper, DocumentService documentService,
+                                       DocumentBlobStore blobStore, DocumentCompression compression) {
+        this.objectMapper = objectMapper;
+        this.documentService = documentService;
+        this.blobStore = blobStore;
+        this.compression = compression;
+    }
+
+    /**
+     * Create a document from a create-base64 JSON body (title, description, type, legalCaseId,
+     * fileName, contentType, base64Content)
+     */
+    public DocumentDTO ingest(InputStream jsonBody) throws IOException {
+        String storageType = documentService.getStorageType();
+        IngestRequest request = new IngestRequest();
+        DocumentBlob blob = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "title" -> request.title = parser.getValueAsString();
+                    case "description" -> request.description = parser.getValueAsString();
+                    case "type" -> request.type = parseType(parser.getValueAsString());
+                    case "legalCaseId" -> request.legalCaseId = parser.getValueAsLong();
+                    case "fileName" -> request.fileName = parser.getValueAsString();
+                    case "contentType" -> request.contentType = parser.getValueAsString();
+                    case "base64Content" -> {
+                        if (value != JsonToken.VALUE_STRING) {
+                            throw new IllegalArgumentException("base64Content must be a string");
+                        }
+                        if (blob != null || request.base64Content != null) {
+                            throw new IllegalArgumentException("base64Content given more than once");
+                        }
+                        if (DocumentService.STORAGE_BASE64.equals(storageType)) {
+                            // Legacy storage keeps the base64 text itself
+                            request.base64Content = parser.getText();
+                        } else {
+                            if (request.legalCaseId == null || request.fileName == null || request.contentType == null) {
+                                throw new IllegalArgumentException(
+                                        "legalCaseId, fileName and contentType must come before base64Content");
+                            }
+                            blob = blobStore.store(storageType,
+                                    documentService.newStorageKey(storageType, request.legalCaseId, request.fileName),
+                                    compression.shouldCompress(request.contentType),
+                                    out -> parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, out));
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            request.validate(blob != null || request.base64Content != null);
+        } catch (JsonProcessingException e) {
+            release(blob);
+            throw new IllegalArgumentException("Invalid request body: " + e.getOriginalMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            release(blob);
+            throw e;
+        }
+
+        if (blob == null) {
+            return documentService.createDocumentFromBase64(request.title, request.description, request.type,
+                    request.legalCaseId, request.fileName, request.contentType, request.base64Content);
+        }
+        return documentService.createDocumentForBlob(request.title, request.description, request.type,
+                request.legalCaseId, request.fileName, request.contentType, blob, "CREATE");
+    }
+
+    private void release(DocumentBlob blob) {
+        if (blob != null) {
+            blobStore.release(blob.getHash());
+        }
+    }
+
+    private Document.DocumentType parseType(String value) {
+        try {
+            return Document.DocumentType.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown document type: " + value);
+        }
+    }
+
+    /**
+     * Metadata fields of the request, collected while parsing
+     */
+    private static class IngestRequest {
+        private String title;
+        private String description;
+        private Document.DocumentType type;
+        private Long legalCaseId;
+        private String fileName;
+        private String contentType;
+        private String base64Content; // Legacy base64 storage only
+
+        private void validate(boolean hasContent) {
+            if (title == null || type == null || legalCaseId == null || fileName == null || contentType == null) {
+                throw new IllegalArgumentException("title, type, legalCaseId, fileName and contentType are required");
+            }
+            if (!hasContent) {
+                throw new IllegalArgumentException("base64Content is required");
+            }
+        }
+    }
+}
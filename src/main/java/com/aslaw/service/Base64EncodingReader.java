@@ -0,0 +1,72 @@
+package com.aslaw.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Reader producing the base64 text of a byte stream block by block, so content
+ * can be bound to a TEXT parameter (setCharacterStream) without first holding
+ * the raw bytes and an encoded copy of them
+ */
+class Base64EncodingReader extends Reader {
+
+    // Multiple of 3, so padding only ever appears after the last block
+    private static final int BLOCK_BYTES = 3 * 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] block = new byte[BLOCK_BYTES];
+    private byte[] encoded = new byte[0];
+    private int position;
+    private boolean finished;
+
+    Base64EncodingReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Characters of the base64 text for the given number of bytes
+     */
+    static long encodedLength(long bytes) {
+        return (bytes + 2) / 3 * 4;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == encoded.length && !fill()) {
+            return -1;
+        }
+        int count = Math.min(length, encoded.length - position);
+        for (int i = 0; i < count; i++) {
+            buffer[offset + i] = (char) encoded[position + i];
+        }
+        position += count;
+        return count;
+    }
+
+    private boolean fill() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int read = in.readNBytes(block, 0, BLOCK_BYTES);
+        if (read < BLOCK_BYTES) {
+            finished = true;
+        }
+        if (read == 0) {
+            return false;
+        }
+        encoded = Base64.getEncoder().encode(read == BLOCK_BYTES ? block : Arrays.copyOf(block, read));
+        position = 0;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,307 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.repository.DocumentContentRepository;
+import com.aslaw.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throttled background migration of legacy base64 documents into binary storage.
+ * Documents are walked in id order (keyset batches); each one is decoded
+ * window by window, written to the blob store, verified against its recorded
+ * size, re-pointed, and its base64 row deleted. Converted documents leave the
+ * base64 set, so a stopped or restarted job simply resumes with what is left.
+ * The same throttled worker can instead rewrite the base64 values that stay,
+ * so they pick up the STORAGE EXTERNAL column setting (v1.9.8).
+ */
+@Slf4j
+@Service
+public class Base64MigrationService {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
+    private final DocumentContentReader contentReader;
+    private final DocumentBlobStore blobStore;
+    private final DocumentService documentService;
+    private final DocumentCompression compression;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.migration.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.storage.migration.rows-per-second:5}")
+    private double rowsPerSecond;
+
+    @Value("${app.storage.migration.bytes-per-second:2097152}")
+    private long bytesPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong lastDocumentId = new AtomicLong(0);
+    private final AtomicLong migratedDocuments = new AtomicLong(0);
+    private final AtomicLong failedDocuments = new AtomicLong(0);
+    private final AtomicLong migratedBytes = new AtomicLong(0);
+    private final AtomicLong rewrittenRows = new AtomicLong(0);
+    private volatile String job;
+    private volatile boolean stopRequested = false;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    @Autowired
+    public Base64MigrationService(DocumentRepository documentRepository,
+                                  DocumentContentRepository documentContentRepository,
+                                  DocumentContentReader contentReader, DocumentBlobStore blobStore,
+                                  DocumentService documentService, DocumentCompression compression,
+                                  PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.documentContentRepository = documentContentRepository;
+        this.contentReader = contentReader;
+        this.blobStore = blobStore;
+        this.documentService = documentService;
+        this.compression = compression;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start the migration on a background thread
+     *
+     * @return false if a migration is already running
+     */
+    public boolean start() {
+        return startJob("migration", this::runMigration);
+    }
+
+    /**
+     * Start rewriting the remaining base64 values on a background thread
+     *
+     * @return false if a migration or rewrite is already running
+     */
+    public boolean startRewrite() {
+        return startJob("rewrite", this::runRewrite);
+    }
+
+    private boolean startJob(String name, Runnable work) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        job = name;
+        stopRequested = false;
+        lastDocumentId.set(0);
+        migratedDocuments.set(0);
+        failedDocuments.set(0);
+        migratedBytes.set(0);
+        rewrittenRows.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        Thread worker = new Thread(work, "base64-" + name);
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Ask the running migration to stop after the current document
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Progress snapshot
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("running", running.get());
+        progress.put("job", job);
+        progress.put("migratedDocuments", migratedDocuments.get());
+        progress.put("failedDocuments", failedDocuments.get());
+        progress.put("migratedBytes", migratedBytes.get());
+        progress.put("rewrittenRows", rewrittenRows.get());
+        progress.put("remainingDocuments", documentRepository.countBase64Documents());
+        progress.put("lastDocumentId", lastDocumentId.get());
+        progress.put("targetStorage", targetStorageType(-1));
+        progress.put("rowsPerSecond", rowsPerSecond);
+        progress.put("bytesPerSecond", bytesPerSecond);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("lastError", lastError);
+        return progress;
+    }
+
+    private void runMigration() {
+        long started = System.nanoTime();
+        long rows = 0;
+        long bytes = 0;
+        try {
+            log.info("🚚 Base64 document migration started (target: {})", targetStorageType(-1));
+            while (!stopRequested) {
+                List<Document> batch = documentRepository.findBase64DocumentsAfter(
+                        lastDocumentId.get(), PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Document document : batch) {
+                    if (stopRequested) {
+                        break;
+                    }
+                    lastDocumentId.set(document.getId());
+                    try {
+                        if (migrateDocument(document)) {
+                            migratedDocuments.incrementAndGet();
+                            migratedBytes.addAndGet(document.getFileSize());
+                        }
+                    } catch (Exception e) {
+                        failedDocuments.incrementAndGet();
+                        lastError = "Document " + document.getId() + ": " + e.getMessage();
+                        log.warn("⚠️ Could not migrate document {}: {}", document.getId(), e.getMessage());
+                    }
+                    rows++;
+                    bytes += document.getFileSize();
+                    throttle(started, rows, bytes);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("❌ Base64 document migration aborted: {}", e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            log.info("🚚 Base64 document migration finished: {} migrated, {} failed",
+                    migratedDocuments.get(), failedDocuments.get());
+        }
+    }
+
+    /**
+     * Rewrite every base64 value once, one short statement per row, at the migration rate limits
+     */
+    private void runRewrite() {
+        long started = System.nanoTime();
+        long rows = 0;
+        long bytes = 0;
+        try {
+            log.info("🚚 Base64 content rewrite started");
+            while (!stopRequested) {
+                List<Object[]> batch = documentContentRepository.findContentLengthsAfter(lastDocumentId.get(), batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : batch) {
+                    if (stopRequested) {
+                        break;
+                    }
+                    Long documentId = ((Number) row[0]).longValue();
+                    long length = row[1] != null ? ((Number) row[1]).longValue() : 0;
+                    lastDocumentId.set(documentId);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> documentContentRepository.rewriteContent(documentId));
+                        rewrittenRows.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failedDocuments.incrementAndGet();
+                        lastError = "Document " + documentId + ": " + e.getMessage();
+                        log.warn("⚠️ Could not rewrite base64 content of document {}: {}", documentId, e.getMessage());
+                    }
+                    rows++;
+                    bytes += length;
+                    throttle(started, rows, bytes);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("❌ Base64 content rewrite aborted: {}", e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            log.info("🚚 Base64 content rewrite finished: {} rewritten, {} failed",
+                    rewrittenRows.get(), failedDocuments.get());
+        }
+    }
+
+    /**
+     * Copy one document into binary storage and re-point it
+     *
+     * @return false when the document was deleted meanwhile (nothing is changed)
+     */
+    private boolean migrateDocument(Document document) throws IOException {
+        String storageType = targetStorageType(document.getFileSize());
+        Long caseId = document.getLegalCase() != null ? document.getLegalCase().getId() : 0L;
+        String storageKey = documentService.newStorageKey(storageType, caseId, document.getFileName());
+
+        DocumentBlob blob;
+        try (InputStream inputStream = contentReader.open(document)) {
+            blob = blobStore.store(storageType, storageKey, inputStream,
+                    compression.shouldCompress(document.getContentType()));
+        }
+
+        // Verify the decoded content before dropping the base64 copy
+        if (!blob.getSizeBytes().equals(document.getFileSize())) {
+            blobStore.release(blob.getHash());
+            throw new IOException("Decoded size " + blob.getSizeBytes() + " does not match file size " + document.getFileSize());
+        }
+
+        String filePath = DocumentService.STORAGE_LOCAL.equals(blob.getStorageType()) ? blob.getStorageKey() : "";
+        Boolean repointed;
+        try {
+            repointed = transactionTemplate.execute(status -> {
+                int updated = documentRepository.updateStorageById(document.getId(), blob.getStorageType(),
+                        blob.getStorageKey(), blob.getHash(), filePath, blob.getCodec(), blob.getStoredOrOriginalBytes());
+                if (updated == 0) {
+                    // Soft deleted during the copy: keep its base64 content for the purger
+                    status.setRollbackOnly();
+                    return false;
+                }
+                documentContentRepository.deleteByDocumentId(document.getId());
+                return true;
+            });
+        } catch (RuntimeException e) {
+            blobStore.release(blob.getHash());
+            throw e;
+        }
+        if (!Boolean.TRUE.equals(repointed)) {
+            blobStore.release(blob.getHash());
+            log.info("🚚 Document {} was deleted during migration, skipped", document.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sleep until both the row and byte rate are back under their limits
+     */
+    private void throttle(long startedNanos, long rows, long bytes) throws InterruptedException {
+        double elapsedSeconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        double requiredSeconds = Math.max(
+                rowsPerSecond > 0 ? rows / rowsPerSecond : 0,
+                bytesPerSecond > 0 ? (double) bytes / bytesPerSecond : 0);
+        long sleepMillis = (long) ((requiredSeconds - elapsedSeconds) * 1000);
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+    }
+
+    private String targetStorageType(long fileSize) {
+        String storageType = documentService.getStorageType(fileSize);
+        return DocumentService.STORAGE_BASE64.equals(storageType) ? DocumentService.STORAGE_DATABASE : storageType;
+    }
+}
@@ -0,0 +1,52 @@
+package com.aslaw.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Output stream over a FileChannel that forces the content to disk on close
+ */
+class ChannelOutputStream extends OutputStream {
+
+    private final FileChannel channel;
+    private boolean closed = false;
+
+    ChannelOutputStream(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        afterClose();
+    }
+
+    /**
+     * Called once after the content has been written and the channel closed
+     */
+    protected void afterClose() throws IOException {
+    }
+}
@@ -0,0 +1,169 @@
+package com.aslaw.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Proof of possession for hash-first uploads. Knowing a SHA-256 is not
+ * enough to reference stored content: the client gets a random nonce and
+ * random byte ranges of the file, and must answer with
+ * hex(SHA-256(nonce || range 1 || ... || range n)). Challenges are kept
+ * in memory, expire, and can be answered once.
+ */
+@Service
+public class ContentProofService {
+
+    private final SecureRandom random = new SecureRandom();
+    private final int rangeCount;
+    private final int rangeBytes;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, Challenge> challenges;
+
+    public ContentProofService(@Value("${app.upload.proof.ranges:4}") int rangeCount,
+                               @Value("${app.upload.proof.range-bytes:4096}") int rangeBytes,
+                               @Value("${app.upload.proof.ttl-minutes:10}") long ttlMinutes,
+                               @Value("${app.upload.proof.max-entries:10000}") int maxEntries) {
+        this.rangeCount = rangeCount;
+        this.rangeBytes = rangeBytes;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.maxEntries = maxEntries;
+        // Insertion ordered, the oldest challenges are dropped first when full
+        this.challenges = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Challenge> eldest) {
+                return size() > ContentProofService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * New challenge for the claimed content. Issued whether or not the content is stored,
+     * so the answer does not reveal which hashes exist.
+     */
+    public Challenge issue(String sha256, long fileSize) {
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        List<long[]> ranges = new ArrayList<>();
+        long length = Math.min(rangeBytes, fileSize);
+        for (int i = 0; i < rangeCount && length > 0; i++) {
+            long offset = fileSize > length ? (long) (random.nextDouble() * (fileSize - length + 1)) : 0;
+            ranges.add(new long[] {offset, length});
+        }
+        Challenge challenge = new Challenge(UUID.randomUUID().toString(), sha256, fileSize,
+                Base64.getEncoder().encodeToString(nonce), ranges, Instant.now().plus(ttl));
+        synchronized (challenges) {
+            challenges.put(challenge.getId(), challenge);
+        }
+        return challenge;
+    }
+
+    /**
+     * Check the answer to a challenge against the stored content; the challenge is used up either way
+     */
+    public boolean verify(String challengeId, String sha256, long fileSize, String proof, RangeReader reader) throws IOException {
+        Challenge challenge;
+        synchronized (challenges) {
+            challenge = challengeId != null ? challenges.remove(challengeId) : null;
+        }
+        if (challenge == null || challenge.expiresAt.isBefore(Instant.now()) || proof == null
+                || !challenge.sha256.equals(sha256) || challenge.fileSize != fileSize) {
+            return false;
+        }
+
+        MessageDigest digest = newDigest();
+        digest.update(Base64.getDecoder().decode(challenge.getNonce()));
+        for (long[] range : challenge.getRanges()) {
+            try (InputStream inputStream = reader.open(range[0], range[1])) {
+                byte[] bytes = inputStream.readNBytes((int) range[1]);
+                if (bytes.length != range[1]) {
+                    return false;
+                }
+                digest.update(bytes);
+            }
+        }
+        byte[] expected = HexFormat.of().formatHex(digest.digest()).getBytes();
+        return MessageDigest.isEqual(expected, proof.toLowerCase(Locale.ROOT).getBytes());
+    }
+
+    /**
+     * Drop expired challenges
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void removeExpired() {
+        Instant now = Instant.now();
+        synchronized (challenges) {
+            challenges.values().removeIf(challenge -> challenge.expiresAt.isBefore(now));
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Opens a byte window of the stored content
+     */
+    @FunctionalInterface
+    public interface RangeReader {
+        InputStream open(long offset, long length) throws IOException;
+    }
+
+    public static class Challenge {
+        private final String id;
+        private final String sha256;
+        private final long fileSize;
+        private final String nonce;
+        private final List<long[]> ranges; // [offset, length] pairs
+        private final Instant expiresAt;
+
+        private Challenge(String id, String sha256, long fileSize, String nonce, List<long[]> ranges, Instant expiresAt) {
+            this.id = id;
+            this.sha256 = sha256;
+            this.fileSize = fileSize;
+            this.nonce = nonce;
+            this.ranges = ranges;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getId() { return id; }
+        public String getNonce() { return nonce; }
+        public List<long[]> getRanges() { return ranges; }
+        public Instant getExpiresAt() { return expiresAt; }
+    }
+
+    /**
+     * The caller cannot access any document with this content and has to prove it has the file
+     */
+    public static class ProofRequiredException extends RuntimeException {
+        private final Challenge challenge;
+
+        public ProofRequiredException(Challenge challenge) {
+            super("Proof of possession required");
+            this.challenge = challenge;
+        }
+
+        public Challenge getChallenge() { return challenge; }
+    }
+}
@@ -0,0 +1,175 @@
+package com.aslaw.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Approximate per-document access frequency in constant memory.
+ * Accesses are counted in a count-min sketch (depth x width counters, no
+ * allocation per access) that is halved periodically, so counts reflect
+ * recent popularity. A small fixed-size table keeps the current top
+ * documents for the actuator view. Cache admission and tiering consult
+ * {@link #isHot(Long)}.
+ */
+@Component
+public class DocumentAccessTracker {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final AtomicIntegerArray counters;
+    private final int widthMask;
+    private final int hotThreshold;
+
+    // Top documents: parallel arrays guarded by "this", minTopCount lets most accesses skip the lock
+    private final long[] topIds;
+    private final int[] topCounts;
+    private int topSize = 0;
+    private volatile int minTopCount = 0;
+
+    public DocumentAccessTracker(@Value("${app.storage.access.sketch-width:65536}") int width,
+                                 @Value("${app.storage.access.top-size:100}") int topCapacity,
+                                 @Value("${app.storage.access.hot-threshold:3}") int hotThreshold) {
+        // Rounded down to a power of two so the column is a mask of the hash
+        int columns = Integer.highestOneBit(Math.max(1024, width));
+        this.counters = new AtomicIntegerArray(DEPTH * columns);
+        this.widthMask = columns - 1;
+        this.hotThreshold = hotThreshold;
+        this.topIds = new long[Math.max(1, topCapacity)];
+        this.topCounts = new int[Math.max(1, topCapacity)];
+    }
+
+    /**
+     * Count one access to the document
+     */
+    public void recordAccess(Long documentId) {
+        if (documentId == null) {
+            return;
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(row, documentId);
+            int value = counters.get(index);
+            // Saturate instead of overflowing
+            if (value < Integer.MAX_VALUE) {
+                value = counters.incrementAndGet(index);
+            }
+            estimate = Math.min(estimate, value);
+        }
+        if (estimate > minTopCount || topSize < topIds.length) {
+            updateTop(documentId, estimate);
+        }
+    }
+
+    /**
+     * Estimated recent accesses of the document (never less than the true count since the last decay)
+     */
+    public int getEstimate(Long documentId) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, documentId)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Whether the document was accessed at least hot-threshold times recently
+     */
+    public boolean isHot(Long documentId) {
+        return documentId != null && getEstimate(documentId) >= hotThreshold;
+    }
+
+    /**
+     * The hottest documents, most accessed first
+     */
+    public synchronized List<Map<String, Object>> getTopDocuments(int limit) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < topSize; i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Integer.compare(topCounts[b], topCounts[a]));
+
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, order.size()); i++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("documentId", topIds[order.get(i)]);
+            entry.put("estimatedAccesses", topCounts[order.get(i)]);
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * Halve every counter so old popularity fades out
+     */
+    @Scheduled(fixedDelayString = "${app.storage.access.decay-interval-ms:3600000}",
+               initialDelayString = "${app.storage.access.decay-interval-ms:3600000}")
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            int value;
+            do {
+                value = counters.get(i);
+            } while (value != 0 && !counters.compareAndSet(i, value, value >>> 1));
+        }
+        synchronized (this) {
+            int kept = 0;
+            for (int i = 0; i < topSize; i++) {
+                int count = topCounts[i] >>> 1;
+                if (count > 0) {
+                    topIds[kept] = topIds[i];
+                    topCounts[kept] = count;
+                    kept++;
+                }
+            }
+            topSize = kept;
+            refreshMinTopCount();
+        }
+    }
+
+    private synchronized void updateTop(long documentId, int estimate) {
+        int min = 0;
+        for (int i = 0; i < topSize; i++) {
+            if (topIds[i] == documentId) {
+                topCounts[i] = Math.max(topCounts[i], estimate);
+                refreshMinTopCount();
+                return;
+            }
+            if (topCounts[i] < topCounts[min]) {
+                min = i;
+            }
+        }
+        if (topSize < topIds.length) {
+            topIds[topSize] = documentId;
+            topCounts[topSize] = estimate;
+            topSize++;
+        } else if (estimate > topCounts[min]) {
+            topIds[min] = documentId;
+            topCounts[min] = estimate;
+        }
+        refreshMinTopCount();
+    }
+
+    private void refreshMinTopCount() {
+        int min = topSize < topIds.length ? 0 : Integer.MAX_VALUE;
+        for (int i = 0; i < topSize; i++) {
+            min = Math.min(min, topCounts[i]);
+        }
+        minTopCount = min;
+    }
+
+    private int index(int row, long documentId) {
+        // SplitMix64 finaliser with a per-row seed
+        long hash = (documentId + SEEDS[row]);
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash = hash ^ (hash >>> 31);
+        return row * (widthMask + 1) + ((int) hash & widthMask);
+    }
+}
@@ -0,0 +1,124 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Document;
+import com.aslaw.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams ZIP archives of a case's or a client's documents.
+ * Entries are written one document at a time straight from storage into the
+ * response, so memory use does not depend on the archive size. Content types
+ * that are already compressed (DOCX, JPEG, ZIP, ...) are written with
+ * NO_COMPRESSION instead of being deflated a second time.
+ */
+@Slf4j
+@Service
+public class DocumentArchiveService {
+
+    private static final int OUTPUT_BUFFER = 64 * 1024;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentContentReader contentReader;
+    private final DocumentCompression compression;
+
+    @Autowired
+    public DocumentArchiveService(DocumentRepository documentRepository, DocumentContentReader contentReader,
+                                  DocumentCompression compression) {
+        this.documentRepository = documentRepository;
+        this.contentReader = contentReader;
+        this.compression = compression;
+    }
+
+    /**
+     * Documents of a case, newest first
+     */
+    public List<Document> getCaseDocuments(Long caseId) {
+        return documentRepository.findByCaseId(caseId);
+    }
+
+    /**
+     * Documents of all of a client's cases, newest first
+     */
+    public List<Document> getClientDocuments(Long clientId) {
+        return documentRepository.findByClientId(clientId);
+    }
+
+    /**
+     * Write the documents as a ZIP archive; with {@code folderPerCase} each case gets its own folder
+     */
+    public void writeArchive(List<Document> documents, boolean folderPerCase, OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(outputStream, OUTPUT_BUFFER));
+        Set<String> entryNames = new HashSet<>();
+        for (Document document : documents) {
+            String name = uniqueEntryName(entryNames, entryName(document, folderPerCase));
+            zip.setLevel(compression.shouldCompress(document.getContentType())
+                    ? Deflater.BEST_SPEED : Deflater.NO_COMPRESSION);
+
+            ZipEntry entry = new ZipEntry(name);
+            if (document.getUpdatedDate() != null) {
+                entry.setTimeLocal(document.getUpdatedDate());
+            } else if (document.getCreatedDate() != null) {
+                entry.setTimeLocal(document.getCreatedDate());
+            }
+            zip.putNextEntry(entry);
+            try {
+                contentReader.transferTo(document, 0, document.getFileSize(), zip);
+            } catch (IOException e) {
+                log.warn("⚠️ Archive aborted at document {}: {}", document.getId(), e.getMessage());
+                throw e;
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private String entryName(Document document, boolean folderPerCase) {
+        String fileName = sanitize(document.getFileName());
+        if (!folderPerCase || document.getLegalCase() == null) {
+            return fileName;
+        }
+        String folder = document.getLegalCase().getCaseNumber() != null
+                ? document.getLegalCase().getCaseNumber()
+                : "case-" + document.getLegalCase().getId();
+        return sanitize(folder) + "/" + fileName;
+    }
+
+    /**
+     * Keep entry names unique: "file.pdf", "file (2).pdf", ...
+     */
+    private String uniqueEntryName(Set<String> entryNames, String name) {
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        int slash = name.lastIndexOf('/');
+        String base = dot > slash + 1 ? name.substring(0, dot) : name;
+        String extension = dot > slash + 1 ? name.substring(dot) : "";
+        for (int i = 2; !entryNames.add(candidate); i++) {
+            candidate = base + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+
+    /**
+     * Strip path separators and control characters so entries cannot escape the archive folder
+     */
+    private String sanitize(String name) {
+        String cleaned = name == null ? "" : name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        if (cleaned.isEmpty() || cleaned.equals(".") || cleaned.equals("..")) {
+            return "document";
+        }
+        return cleaned;
+    }
+}
@@ -0,0 +1,345 @@
+package com.aslaw.service;
+
+import com.aslaw.dto.DocumentDTO;
+import com.aslaw.entity.Case;
+import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.repository.CaseRepository;
+import com.infracore.entity.User;
+import com.infracore.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uploads many files into one case in a single request.
+ * The case is validated once, every file is streamed into storage on its own
+ * (a failing file does not affect the others), and the metadata of all stored
+ * files is then written in one short transaction with JDBC batch inserts
+ * (documents and their activity log entries).
+ */
+@Slf4j
+@Service
+public class DocumentBatchUploadService {
+
+    private static final String INSERT_DOCUMENT =
+        "INSERT INTO documents (title, file_name, content_type, file_size, description, file_path, storage_type, " +
+        "storage_key, content_hash, compression_codec, stored_size, deleted, type, legal_case_id, created_date, updated_date) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, ?, ?, ?)";
+
+    private static final String INSERT_CONTENT =
+        "INSERT INTO document_contents (document_id, base64_content) VALUES (?, ?)";
+
+    private static final String INSERT_ACTIVITY =
+        "INSERT INTO activity_logs (type, description, performed_by_id, performed_by_name, performed_by_username, " +
+        "target_entity_id, target_entity_name, target_entity_type, related_entity_id, related_entity_name, " +
+        "related_entity_type, created_date, created_by, version, deleted) " +
+        "VALUES ('DOCUMENT_CREATED', ?, ?, ?, ?, ?, ?, 'DOCUMENT', ?, ?, 'CLIENT', ?, ?, 0, false)";
+
+    private final DocumentService documentService;
+    private final DocumentBlobStore blobStore;
+    private final DocumentCompression compression;
+    private final DocumentThumbnailService thumbnailService;
+    private final CaseRepository caseRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DocumentBatchUploadService(DocumentService documentService, DocumentBlobStore blobStore,
+                                      DocumentCompression compression, DocumentThumbnailService thumbnailService,
+                                      CaseRepository caseRepository, UserRepository userRepository,
+                                      JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.documentService = documentService;
+        this.blobStore = blobStore;
+        this.compression = compression;
+        this.thumbnailService = thumbnailService;
+        this.caseRepository = caseRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Upload the files into the case; the title of each document is its file name
+     *
+     * @return one result per file, in request order
+     */
+    public List<BatchUploadResult> uploadDocuments(List<MultipartFile> files, Document.DocumentType type,
+                                                   Long caseId, String description) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found with id: " + caseId);
+        }
+
+        List<BatchUploadResult> results = new ArrayList<>();
+        List<PendingDocument> pending = new ArrayList<>();
+
+        // Content first, one file at a time and without a database connection
+        for (MultipartFile file : files) {
+            BatchUploadResult result = new BatchUploadResult(file.getOriginalFilename());
+            results.add(result);
+            if (file.isEmpty()) {
+                result.setError("File cannot be empty");
+                continue;
+            }
+            try {
+                pending.add(storeContent(file, type, caseId, description, documentService.getStorageType(file.getSize()), result));
+            } catch (Exception e) {
+                result.setError("File processing error: " + e.getMessage());
+                log.warn("⚠️ Batch upload of {} failed: {}", file.getOriginalFilename(), e.getMessage());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            try {
+                saveDocuments(pending, caseId);
+            } catch (RuntimeException e) {
+                // Nothing was saved, drop the references taken for the stored content
+                for (PendingDocument entry : pending) {
+                    if (entry.blob != null) {
+                        blobStore.release(entry.blob.getHash());
+                    }
+                    entry.result.setError("Upload failed: " + e.getMessage());
+                }
+            }
+        }
+        return results;
+    }
+
+    private PendingDocument storeContent(MultipartFile file, Document.DocumentType type, Long caseId,
+                                         String description, String storageType, BatchUploadResult result) throws Exception {
+        String fileName = StringUtils.cleanPath(file.getOriginalFilename() != null ? file.getOriginalFilename() : "document");
+        Document document = new Document();
+        document.setTitle(StringUtils.stripFilenameExtension(fileName));
+        document.setDescription(description);
+        document.setFileName(fileName);
+        document.setContentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream");
+        document.setFileSize(file.getSize());
+        document.setFilePath("");
+        document.setType(type);
+
+        PendingDocument entry = new PendingDocument(document, result);
+        if (DocumentService.STORAGE_BASE64.equals(storageType)) {
+            // Legacy mode: content is kept as base64 text, encoded while it is inserted
+            document.setStorageType(DocumentService.STORAGE_BASE64);
+            entry.base64Source = file;
+            return entry;
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            entry.blob = blobStore.store(storageType, documentService.newStorageKey(storageType, caseId, fileName),
+                    inputStream, compression.shouldCompress(document.getContentType()));
+        }
+        document.setStorageType(entry.blob.getStorageType());
+        document.setStorageKey(entry.blob.getStorageKey());
+        document.setContentHash(entry.blob.getHash());
+        document.setCompressionCodec(entry.blob.getCodec());
+        document.setStoredSize(entry.blob.getStoredOrOriginalBytes());
+        if (DocumentService.STORAGE_LOCAL.equals(entry.blob.getStorageType())) {
+            document.setFilePath(entry.blob.getStorageKey());
+        }
+        return entry;
+    }
+
+    /**
+     * Insert all documents (and legacy base64 contents) as JDBC batches in one transaction
+     */
+    private void saveDocuments(List<PendingDocument> pending, Long caseId) {
+        Performer performer = currentPerformer();
+        transactionTemplate.executeWithoutResult(status -> {
+            Case legalCase = caseRepository.findById(caseId)
+                    .orElseThrow(() -> new RuntimeException("Case not found with id: " + caseId));
+            LocalDateTime now = LocalDateTime.now();
+            // Blobs may have been tiered since they were stored; lock in hash order to avoid deadlocks
+            pending.stream()
+                    .filter(entry -> entry.blob != null)
+                    .sorted(Comparator.comparing(entry -> entry.blob.getHash()))
+                    .forEach(entry -> blobStore.applyCurrentLocation(entry.document));
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_DOCUMENT, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Document document = pending.get(i).document;
+                        ps.setString(1, document.getTitle());
+                        ps.setString(2, document.getFileName());
+                        ps.setString(3, document.getContentType());
+                        ps.setLong(4, document.getFileSize());
+                        ps.setString(5, document.getDescription());
+                        ps.setString(6, document.getFilePath());
+                        ps.setString(7, document.getStorageType());
+                        ps.setString(8, document.getStorageKey());
+                        ps.setString(9, document.getContentHash());
+                        ps.setString(10, document.getCompressionCodec());
+                        if (document.getStoredSize() != null) {
+                            ps.setLong(11, document.getStoredSize());
+                        } else {
+                            ps.setNull(11, Types.BIGINT);
+                        }
+                        ps.setString(12, document.getType().name());
+                        ps.setLong(13, caseId);
+                        ps.setTimestamp(14, Timestamp.valueOf(now));
+                        ps.setTimestamp(15, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return pending.size();
+                    }
+                }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < pending.size(); i++) {
+                Document document = pending.get(i).document;
+                document.setId(((Number) keys.get(i).get("id")).longValue());
+                document.setLegalCase(legalCase);
+                document.setCreatedDate(now);
+                document.setUpdatedDate(now);
+            }
+
+            // One row at a time: each holds a whole file as text, batching would hold all of them
+            for (PendingDocument entry : pending) {
+                if (entry.base64Source != null) {
+                    insertBase64Content(entry.document.getId(), entry.base64Source);
+                }
+            }
+
+            insertActivities(pending, legalCase, performer, now);
+            for (PendingDocument entry : pending) {
+                entry.result.setDocument(new DocumentDTO(entry.document));
+            }
+        });
+        log.info("📋 Batch uploaded {} documents into case {}", pending.size(), caseId);
+        for (PendingDocument entry : pending) {
+            thumbnailService.scheduleThumbnail(entry.document.getId(), entry.document.getContentType(), entry.document.getFileSize());
+        }
+    }
+
+    private void insertBase64Content(Long documentId, MultipartFile file) {
+        jdbcTemplate.update(INSERT_CONTENT, ps -> {
+            ps.setLong(1, documentId);
+            try {
+                ps.setCharacterStream(2, new Base64EncodingReader(file.getInputStream()),
+                        (int) Base64EncodingReader.encodedLength(file.getSize()));
+            } catch (IOException e) {
+                throw new SQLException("Could not read " + file.getOriginalFilename(), e);
+            }
+        });
+    }
+
+    /**
+     * DOCUMENT_CREATED activity entries for all documents, as one JDBC batch
+     */
+    private void insertActivities(List<PendingDocument> pending, Case legalCase, Performer performer, LocalDateTime now) {
+        User client = legalCase.getClient();
+        Long clientId = client != null ? client.getId() : 0L;
+        String clientName = client != null ? client.getFirstName() + " " + client.getLastName() : "Unknown Client";
+        jdbcTemplate.batchUpdate(INSERT_ACTIVITY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Document document = pending.get(i).document;
+                ps.setString(1, "Doküman yüklendi: " + document.getTitle());
+                ps.setLong(2, performer.id);
+                ps.setString(3, performer.name);
+                ps.setString(4, performer.username);
+                ps.setLong(5, document.getId());
+                ps.setString(6, document.getTitle());
+                ps.setLong(7, clientId);
+                ps.setString(8, clientName);
+                ps.setTimestamp(9, Timestamp.valueOf(now));
+                ps.setString(10, performer.username);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return pending.size();
+            }
+        });
+    }
+
+    private Performer currentPerformer() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return new Performer(0L, "System", "system");
+        }
+        return userRepository.findByUsername(authentication.getName())
+                .map(user -> new Performer(user.getId(), user.getFirstName() + " " + user.getLastName(), user.getUsername()))
+                .orElse(new Performer(0L, authentication.getName(), authentication.getName()));
+    }
+
+    /**
+     * User the activity entries are attributed to
+     */
+    private static class Performer {
+        private final Long id;
+        private final String name;
+        private final String username;
+
+        private Performer(Long id, String name, String username) {
+            this.id = id;
+            this.name = name;
+            this.username = username;
+        }
+    }
+
+    /**
+     * A stored file waiting for its metadata row
+     */
+    private static class PendingDocument {
+        private final Document document;
+        private final BatchUploadResult result;
+        private DocumentBlob blob;
+        private MultipartFile base64Source; // Legacy base64 storage only
+
+        private PendingDocument(Document document, BatchUploadResult result) {
+            this.document = document;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Outcome of one file of a batch upload
+     */
+    public static class BatchUploadResult {
+        private final String fileName;
+        private DocumentDTO document;
+        private String error;
+
+        public BatchUploadResult(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public String getFileName() { return fileName; }
+        public boolean isSuccess() { return document != null; }
+        public DocumentDTO getDocument() { return document; }
+        public void setDocument(DocumentDTO document) { this.document = document; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
@@ -0,0 +1,232 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.repository.DocumentBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Content-addressed, deduplicated document storage.
+ * Content is streamed into a {@link DocumentStorage} backend while its SHA-256 is computed;
+ * if a blob with the same hash already exists the fresh copy is dropped and
+ * the existing blob gains a reference instead. The hash and size always describe
+ * the original bytes, so compressed and uncompressed copies deduplicate alike.
+ */
+@Service
+public class DocumentBlobStore {
+
+    private final DocumentBlobRepository blobRepository;
+    private final DocumentStorageRegistry storageRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DocumentBlobStore(DocumentBlobRepository blobRepository, DocumentStorageRegistry storageRegistry,
+                             PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.storageRegistry = storageRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Store content under the given storage type and key and return the (possibly shared) blob it ended up in.
+     * Hashing, compression and the storage write run outside any transaction;
+     * only the reference counting holds a database connection.
+     *
+     * @param compress deflate the content on its way into storage
+     */
+    public DocumentBlob store(String storageType, String storageKey, InputStream inputStream, boolean compress) throws IOException {
+        return store(storageType, storageKey, compress, inputStream::transferTo);
+    }
+
+    /**
+     * Store content pushed by the writer (e.g. a streaming decoder); same semantics as
+     * {@link #store(String, String, InputStream, boolean)}
+     */
+    public DocumentBlob store(String storageType, String storageKey, boolean compress, ContentWriter writer) throws IOException {
+        MessageDigest digest = newDigest();
+        DocumentStorage storage = storageRegistry.get(storageType);
+
+        // writer -> digest -> original byte count -> [deflate] -> stored byte count -> storage
+        CountingOutputStream storedCounter;
+        CountingOutputStream originalCounter;
+        try {
+            storedCounter = new CountingOutputStream(storage.openOutputStream(storageKey));
+            originalCounter = new CountingOutputStream(compress ? DocumentCompression.compress(storedCounter) : storedCounter);
+            try (OutputStream outputStream = new DigestOutputStream(originalCounter, digest)) {
+                writer.writeTo(outputStream);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(storage, storageKey);
+            throw e;
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String codec = compress ? DocumentCompression.CODEC_DEFLATE : null;
+        long storedBytes = storedCounter.getCount();
+        if (compress && storedBytes >= originalCounter.getCount()) {
+            // Deflate did not help: keep the content raw so it stays seekable
+            storageKey = rewriteRaw(storage, storageKey);
+            codec = null;
+            storedBytes = originalCounter.getCount();
+        }
+        DocumentBlob candidate = new DocumentBlob(hash, storageType, storageKey,
+                originalCounter.getCount(), codec, storedBytes);
+
+        DocumentBlob blob;
+        try {
+            blob = reference(candidate);
+        } catch (RuntimeException e) {
+            deleteQuietly(storage, storageKey);
+            throw e;
+        }
+
+        // Identical content already stored: keep the existing copy
+        if (!storageKey.equals(blob.getStorageKey()) || !storageType.equals(blob.getStorageType())) {
+            deleteQuietly(storage, storageKey);
+        }
+        return blob;
+    }
+
+    private DocumentBlob reference(DocumentBlob candidate) {
+        try {
+            return transactionTemplate.execute(status -> referenceOrCreate(candidate));
+        } catch (DataIntegrityViolationException e) {
+            // The same content was stored concurrently and won the insert: reference it instead
+            return transactionTemplate.execute(status -> referenceOrCreate(candidate));
+        }
+    }
+
+    private DocumentBlob referenceOrCreate(DocumentBlob candidate) {
+        if (blobRepository.incrementReferenceCount(candidate.getHash()) > 0) {
+            return blobRepository.findById(candidate.getHash())
+                    .orElseThrow(() -> new IllegalStateException("Blob disappeared while referencing: " + candidate.getHash()));
+        }
+        return blobRepository.saveAndFlush(candidate);
+    }
+
+    /**
+     * Take a reference on already stored content without transferring it
+     *
+     * @return the blob, or empty when no content with this hash and size is stored
+     */
+    public Optional<DocumentBlob> referenceExisting(String hash, long sizeBytes) {
+        return transactionTemplate.execute(status -> {
+            if (blobRepository.incrementReferenceCountIfSize(hash, sizeBytes) == 0) {
+                return Optional.<DocumentBlob>empty();
+            }
+            return blobRepository.findById(hash);
+        });
+    }
+
+    /**
+     * Lock the blob row and copy its current location onto the document. Must run in the transaction
+     * that inserts the document, so a concurrent tiering move either re-points it or has already moved
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyCurrentLocation(Document document) {
+        DocumentBlob blob = blobRepository.findByHashForUpdate(document.getContentHash())
+                .orElseThrow(() -> new RuntimeException("Blob not found: " + document.getContentHash()));
+        document.setStorageType(blob.getStorageType());
+        document.setStorageKey(blob.getStorageKey());
+        document.setCompressionCodec(blob.getCodec());
+        document.setStoredSize(blob.getStoredOrOriginalBytes());
+        document.setFilePath(DocumentService.STORAGE_LOCAL.equals(blob.getStorageType()) ? blob.getStorageKey() : "");
+    }
+
+    /**
+     * Drop one reference; the content is deleted with the last reference
+     */
+    @Transactional
+    public void release(String hash) {
+        blobRepository.findByHashForUpdate(hash).ifPresent(blob -> {
+            int remaining = blob.getReferenceCount() - 1;
+            if (remaining > 0) {
+                blob.setReferenceCount(remaining);
+                return;
+            }
+            blobRepository.delete(blob);
+            try {
+                storageRegistry.get(blob.getStorageType()).delete(blob.getStorageKey());
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not delete blob content " + blob.getStorageKey() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Bytes held by all blobs in their storage backends
+     */
+    @Transactional(readOnly = true)
+    public long getStoredBytes() {
+        return blobRepository.sumStoredBytes();
+    }
+
+    /**
+     * Inflate deflated content into a new key next to it and drop the compressed copy
+     *
+     * @return the key of the raw content
+     */
+    private String rewriteRaw(DocumentStorage storage, String storageKey) throws IOException {
+        String rawKey = rawKeyFor(storageKey);
+        try (InputStream inputStream = DocumentCompression.decompress(DocumentCompression.CODEC_DEFLATE,
+                    storage.openInputStream(storageKey, 0, Long.MAX_VALUE));
+             OutputStream outputStream = storage.openOutputStream(rawKey)) {
+            inputStream.transferTo(outputStream);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(storage, rawKey);
+            deleteQuietly(storage, storageKey);
+            throw e;
+        }
+        deleteQuietly(storage, storageKey);
+        return rawKey;
+    }
+
+    /**
+     * "{key}-raw", keeping a file extension last: cases/1/uuid.pdf becomes cases/1/uuid-raw.pdf
+     */
+    private String rawKeyFor(String storageKey) {
+        int slash = storageKey.lastIndexOf('/');
+        int dot = storageKey.lastIndexOf('.');
+        return dot > slash + 1
+                ? storageKey.substring(0, dot) + "-raw" + storageKey.substring(dot)
+                : storageKey + "-raw";
+    }
+
+    private void deleteQuietly(DocumentStorage storage, String storageKey) {
+        try {
+            storage.delete(storageKey);
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not delete blob content " + storageKey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pushes content into the storage stream
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
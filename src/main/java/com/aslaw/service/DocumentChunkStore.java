@@ -0,0 +1,216 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.DocumentChunk;
+import com.aslaw.repository.DocumentChunkRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Binary document storage in the database, split into fixed-size chunks.
+ * Writes and reads only ever hold a single chunk in memory, so heap use per
+ * upload/download stays flat regardless of the file size.
+ */
+@Service
+public class DocumentChunkStore implements DocumentStorage {
+
+    public static final int CHUNK_SIZE = 256 * 1024;
+
+    private final DocumentChunkRepository chunkRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public DocumentChunkStore(DocumentChunkRepository chunkRepository) {
+        this.chunkRepository = chunkRepository;
+    }
+
+    @Override
+    public String getType() {
+        return DocumentService.STORAGE_DATABASE;
+    }
+
+    /**
+     * Stream the given input into chunks stored under the key
+     *
+     * @return number of bytes written
+     */
+    @Override
+    public long write(String storageKey, InputStream inputStream) throws IOException {
+        ChunkOutputStream out = openOutputStream(storageKey);
+        inputStream.transferTo(out);
+        out.close();
+        return out.getBytesWritten();
+    }
+
+    /**
+     * Open an output stream that persists a chunk every CHUNK_SIZE bytes
+     */
+    @Override
+    public ChunkOutputStream openOutputStream(String storageKey) {
+        return new ChunkOutputStream(storageKey);
+    }
+
+    /**
+     * Open an input stream that loads chunks lazily, one at a time
+     */
+    public InputStream openInputStream(String storageKey) {
+        return openInputStream(storageKey, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Open an input stream over a byte window; only the chunks covering the window are read
+     */
+    @Override
+    public InputStream openInputStream(String storageKey, long offset, long length) {
+        return new ChunkInputStream(storageKey, offset, length);
+    }
+
+    /**
+     * Delete all chunks of the given key
+     */
+    @Override
+    @Transactional
+    public void delete(String storageKey) {
+        chunkRepository.deleteByStorageKey(storageKey);
+    }
+
+    private void saveChunk(String storageKey, int chunkIndex, byte[] data) {
+        DocumentChunk chunk = chunkRepository.saveAndFlush(new DocumentChunk(storageKey, chunkIndex, data));
+        // Don't keep written chunks in the persistence context
+        entityManager.detach(chunk);
+    }
+
+    /**
+     * Buffers up to CHUNK_SIZE bytes and writes each full buffer as a chunk row
+     */
+    public class ChunkOutputStream extends OutputStream {
+        private final String storageKey;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int position = 0;
+        private int chunkIndex = 0;
+        private long bytesWritten = 0;
+        private boolean closed = false;
+
+        private ChunkOutputStream(String storageKey) {
+            this.storageKey = storageKey;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            buffer[position++] = (byte) b;
+            bytesWritten++;
+            if (position == CHUNK_SIZE) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            while (len > 0) {
+                int count = Math.min(len, CHUNK_SIZE - position);
+                System.arraycopy(b, off, buffer, position, count);
+                position += count;
+                bytesWritten += count;
+                off += count;
+                len -= count;
+                if (position == CHUNK_SIZE) {
+                    flushChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (position > 0) {
+                flushChunk();
+            }
+            closed = true;
+        }
+
+        public long getBytesWritten() { return bytesWritten; }
+
+        private void flushChunk() {
+            saveChunk(storageKey, chunkIndex++, Arrays.copyOf(buffer, position));
+            position = 0;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Chunk stream already closed: " + storageKey);
+            }
+        }
+    }
+
+    /**
+     * Reads chunks in order, fetching the next one only when the current one is consumed
+     */
+    private class ChunkInputStream extends InputStream {
+        private final String storageKey;
+        private byte[] current;
+        private int position;
+        private int nextIndex;
+        private int initialSkip;
+        private long remaining;
+        private boolean finished = false;
+
+        private ChunkInputStream(String storageKey, long offset, long length) {
+            this.storageKey = storageKey;
+            this.nextIndex = (int) (offset / CHUNK_SIZE);
+            this.initialSkip = (int) (offset % CHUNK_SIZE);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureData()) {
+                return -1;
+            }
+            remaining--;
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureData()) {
+                return -1;
+            }
+            int count = (int) Math.min(Math.min(len, current.length - position), remaining);
+            System.arraycopy(current, position, b, off, count);
+            position += count;
+            remaining -= count;
+            return count;
+        }
+
+        private boolean ensureData() {
+            if (remaining <= 0) {
+                finished = true;
+            }
+            while (!finished && (current == null || position >= current.length)) {
+                current = chunkRepository.findChunkData(storageKey, nextIndex++);
+                position = initialSkip;
+                initialSkip = 0;
+                if (current == null) {
+                    finished = true;
+                }
+            }
+            return !finished;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.aslaw.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Transparent compression of stored document content.
+ * Content types that usually compress well (plain text, RTF, TIFF and BMP
+ * scans) are deflated at BEST_SPEED while they are written; already
+ * compressed formats (PDF, DOCX, JPEG, PNG, ZIP) are stored as is, which also
+ * keeps them seekable for Range requests and zero-copy downloads.
+ */
+@Component
+public class DocumentCompression {
+
+    public static final String CODEC_DEFLATE = "deflate";
+
+    @Value("${app.storage.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.compression.content-types:text/*,application/rtf,image/tiff,image/bmp}")
+    private List<String> compressibleContentTypes;
+
+    /**
+     * Whether content of the given type should be compressed at write time
+     */
+    public boolean shouldCompress(String contentType) {
+        if (!enabled || contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters);
+        }
+        type = type.trim();
+        for (String pattern : compressibleContentTypes) {
+            String candidate = pattern.trim().toLowerCase(Locale.ROOT);
+            if (candidate.endsWith("/*") ? type.startsWith(candidate.substring(0, candidate.length() - 1)) : type.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wrap a storage output stream so that raw content written to it is stored compressed
+     */
+    public static OutputStream compress(OutputStream outputStream) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        return new DeflaterOutputStream(outputStream, deflater, 64 * 1024) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // A caller supplied Deflater is not released by DeflaterOutputStream itself
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wrap stored content in a stream producing the original bytes
+     */
+    public static InputStream decompress(String codec, InputStream inputStream) throws IOException {
+        if (codec == null) {
+            return inputStream;
+        }
+        if (CODEC_DEFLATE.equals(codec)) {
+            return new InflaterInputStream(inputStream);
+        }
+        inputStream.close();
+        throw new IOException("Unsupported compression codec: " + codec);
+    }
+}
@@ -0,0 +1,157 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Document;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opt-in LRU cache of decoded document content, bounded by total bytes.
+ * Content is held in direct (off-heap) buffers, so cached documents add no
+ * GC pressure; readers get independent read-only views of the same buffer.
+ * Entries are keyed by document id and dropped on update and delete.
+ */
+@Component
+public class DocumentContentCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // Access ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, ByteBuffer> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public DocumentContentCache(@Value("${app.storage.cache.enabled:false}") boolean enabled,
+                                @Value("${app.storage.cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${app.storage.cache.max-entry-bytes:2097152}") long maxEntryBytes,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        // A direct buffer is int indexed
+        this.maxEntryBytes = Math.min(Math.min(maxEntryBytes, maxBytes), Integer.MAX_VALUE);
+
+        this.hits = Counter.builder("documents.cache.hits")
+                .description("Document content reads served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("documents.cache.misses")
+                .description("Cacheable document content reads that went to storage")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("documents.cache.evictions")
+                .description("Documents evicted from the cache to stay within max-bytes")
+                .register(meterRegistry);
+        Gauge.builder("documents.cache.bytes", this, cache -> (double) cache.getCachedBytes())
+                .description("Off-heap bytes held by the document content cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("documents.cache.entries", this, cache -> (double) cache.getEntryCount())
+                .description("Documents held by the document content cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the document's content may be cached (cache enabled and the document small enough)
+     */
+    public boolean isCacheable(Document document) {
+        return enabled && document.getId() != null && document.getFileSize() != null
+                && document.getFileSize() <= maxEntryBytes;
+    }
+
+    /**
+     * Whether the document's content is currently cached (no hit or miss is counted)
+     */
+    public synchronized boolean contains(Long documentId) {
+        return entries.containsKey(documentId);
+    }
+
+    /**
+     * Cached content of the document as a read-only view, or null on a miss
+     */
+    public ByteBuffer get(Long documentId) {
+        ByteBuffer content;
+        synchronized (this) {
+            content = entries.get(documentId);
+        }
+        if (content == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return content.duplicate();
+    }
+
+    /**
+     * Copy the content into an off-heap buffer and cache it, evicting least recently used entries
+     *
+     * @return a read-only view of the cached content
+     */
+    public ByteBuffer put(Long documentId, InputStream content, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        byte[] transfer = new byte[(int) Math.min(size, 64 * 1024)];
+        int read;
+        while (buffer.hasRemaining() && (read = content.read(transfer, 0, Math.min(transfer.length, buffer.remaining()))) > 0) {
+            buffer.put(transfer, 0, read);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Document content shorter than its size: " + documentId);
+        }
+        buffer.flip();
+        ByteBuffer cached = buffer.asReadOnlyBuffer();
+
+        synchronized (this) {
+            ByteBuffer previous = entries.put(documentId, cached);
+            if (previous != null) {
+                cachedBytes -= previous.capacity();
+            }
+            cachedBytes += cached.capacity();
+            evictOverflow();
+        }
+        return cached.duplicate();
+    }
+
+    /**
+     * Drop the document's content from the cache
+     */
+    public void invalidate(Long documentId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            ByteBuffer removed = entries.remove(documentId);
+            if (removed != null) {
+                cachedBytes -= removed.capacity();
+            }
+        }
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, ByteBuffer>> iterator = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            // The buffer memory is freed once the last reader drops its view
+            cachedBytes -= iterator.next().getValue().capacity();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.aslaw.service;
+
+import com.aslaw.config.FileUploadConfig;
+import com.aslaw.entity.Document;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Opt-in read-through cache of decoded document content on local disk.
+ * Files are keyed by document id and content version in a size-capped
+ * directory with LRU eviction, so repeat downloads of database, object or
+ * base64 stored documents are served from disk (sendfile / transferTo)
+ * without taking a database connection. Files are verified against the
+ * document size on every hit and against its SHA-256 when written and when
+ * first used after a restart. Request threads only take files that are
+ * already cached; misses are filled on a small background pool. Evicted and
+ * dropped files are deleted after
+ * a grace period, so a download already handed the path (sendfile) can
+ * still open it.
+ */
+@Slf4j
+@Component
+public class DocumentDiskCache {
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final boolean enabled;
+    private final Path root;
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final long deleteDelayMillis;
+
+    // Access ordered: iteration starts at the least recently used file
+    private final LinkedHashMap<String, CachedFile> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes = 0;
+    // File name -> time after which it may be deleted, unless it was cached again meanwhile
+    private final Map<String, Long> pendingDeletes = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter corrupt;
+
+    private final ThreadPoolExecutor fillExecutor;
+    private final Set<String> pendingFills = ConcurrentHashMap.newKeySet();
+
+    public DocumentDiskCache(@Value("${app.storage.disk-cache.enabled:false}") boolean enabled,
+                             @Value("${app.storage.disk-cache.dir:}") String dir,
+                             @Value("${app.storage.disk-cache.max-bytes:1073741824}") long maxBytes,
+                             @Value("${app.storage.disk-cache.max-file-bytes:104857600}") long maxFileBytes,
+                             @Value("${app.storage.disk-cache.delete-delay-ms:60000}") long deleteDelayMillis,
+                             @Value("${app.storage.disk-cache.fill-threads:1}") int fillThreads,
+                             @Value("${app.storage.disk-cache.fill-queue-capacity:100}") int fillQueueCapacity,
+                             FileUploadConfig fileUploadConfig, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.root = (StringUtils.hasText(dir) ? Paths.get(dir) : Paths.get(fileUploadConfig.getUploadDir(), ".cache"))
+                .toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = Math.min(maxFileBytes, maxBytes);
+        this.deleteDelayMillis = deleteDelayMillis;
+
+        this.hits = Counter.builder("documents.disk.cache.hits")
+                .description("Document downloads served from the disk cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("documents.disk.cache.misses")
+                .description("Document downloads that filled the disk cache from storage")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("documents.disk.cache.evictions")
+                .description("Files evicted from the disk cache to stay within max-bytes")
+                .register(meterRegistry);
+        this.corrupt = Counter.builder("documents.disk.cache.corrupt")
+                .description("Cached files dropped because they failed the integrity check")
+                .register(meterRegistry);
+        Gauge.builder("documents.disk.cache.bytes", this, cache -> (double) cache.getCachedBytes())
+                .description("Bytes held by the document disk cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fillExecutor = new ThreadPoolExecutor(fillThreads, fillThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, fillQueueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "disk-cache-fill-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.fillExecutor.allowCoreThreadTimeOut(true);
+
+        if (enabled) {
+            loadExistingFiles();
+        }
+    }
+
+    /**
+     * Whether the document's content may be cached on disk
+     */
+    public boolean isCacheable(Document document) {
+        return enabled && document.getId() != null && document.getFileSize() != null
+                && document.getFileSize() > 0 && document.getFileSize() <= maxFileBytes;
+    }
+
+    /**
+     * Path of the cached, verified content of the document, filling the cache from the loader on a miss
+     */
+    public Path getOrLoad(Document document, ContentLoader loader) throws IOException {
+        String name = fileName(document);
+        Path path = root.resolve(name);
+        CachedFile cached;
+        synchronized (this) {
+            cached = entries.get(name);
+        }
+        if (cached != null) {
+            if (isIntact(document, path, cached)) {
+                hits.increment();
+                return path;
+            }
+            corrupt.increment();
+            log.warn("⚠️ Dropping corrupt cached content of document {}", document.getId());
+            remove(name);
+        }
+
+        misses.increment();
+        fill(document, path, loader);
+        return path;
+    }
+
+    /**
+     * Path of the cached content when it is already cached and verified; never reads storage
+     * or hashes, so it is cheap enough for request threads. Null on a miss.
+     */
+    public Path getIfCached(Document document) {
+        String name = fileName(document);
+        CachedFile cached;
+        synchronized (this) {
+            cached = entries.get(name);
+        }
+        if (cached == null || !(cached.verified || document.getContentHash() == null)
+                || cached.size != document.getFileSize()) {
+            return null;
+        }
+        Path path = root.resolve(name);
+        try {
+            if (!Files.exists(path) || Files.size(path) != cached.size) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        hits.increment();
+        return path;
+    }
+
+    /**
+     * Fill (or verify) the cache entry of the document in the background
+     *
+     * @return false when the fill queue is full; the next request tries again
+     */
+    public boolean scheduleFill(Document document, ContentLoader loader) {
+        if (!isCacheable(document)) {
+            return false;
+        }
+        String name = fileName(document);
+        if (!pendingFills.add(name)) {
+            return true;
+        }
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    getOrLoad(document, loader);
+                } catch (Exception e) {
+                    log.warn("⚠️ Could not cache document {} on disk: {}", document.getId(), e.getMessage());
+                } finally {
+                    pendingFills.remove(name);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingFills.remove(name);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fillExecutor.shutdownNow();
+    }
+
+    /**
+     * Copy a byte window of a cached file to the output with FileChannel.transferTo
+     */
+    public void transferTo(Path path, long offset, long length, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = offset;
+            long end = Math.min(offset + length, channel.size());
+            while (position < end) {
+                long transferred = channel.transferTo(position, Math.min(TRANSFER_CHUNK, end - position), target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Drop every cached version of the document
+     */
+    public void invalidate(Long documentId) {
+        if (!enabled) {
+            return;
+        }
+        String prefix = documentId + "-";
+        List<String> names;
+        synchronized (this) {
+            names = entries.keySet().stream().filter(name -> name.startsWith(prefix)).toList();
+        }
+        names.forEach(this::remove);
+    }
+
+    /**
+     * Delete evicted files whose grace period is over
+     */
+    @Scheduled(fixedDelayString = "${app.storage.disk-cache.delete-delay-ms:60000}", initialDelay = 60000)
+    public synchronized void deleteExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> iterator = pendingDeletes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> pending = iterator.next();
+            if (pending.getValue() > now) {
+                continue;
+            }
+            iterator.remove();
+            if (!entries.containsKey(pending.getKey())) {
+                deleteQuietly(root.resolve(pending.getKey()));
+            }
+        }
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Write the content to a temporary file, verify it and move it into place
+     */
+    private void fill(Document document, Path path, ContentLoader loader) throws IOException {
+        Files.createDirectories(root);
+        Path temp = root.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest digest = newDigest();
+        try {
+            long written;
+            try (InputStream inputStream = new DigestInputStream(loader.open(), digest);
+                 OutputStream outputStream = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW)) {
+                written = inputStream.transferTo(outputStream);
+            }
+            if (written != document.getFileSize()) {
+                throw new IOException("Cached size " + written + " does not match file size " + document.getFileSize());
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            if (document.getContentHash() != null && !document.getContentHash().equals(hash)) {
+                throw new IOException("Cached content does not match the hash of document " + document.getId());
+            }
+            // Moved under the lock so a pending delete of an older copy cannot remove the new file
+            synchronized (this) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                String name = path.getFileName().toString();
+                pendingDeletes.remove(name);
+                CachedFile previous = entries.put(name, new CachedFile(document.getFileSize(), true));
+                if (previous != null) {
+                    cachedBytes -= previous.size;
+                }
+                cachedBytes += document.getFileSize();
+                evictOverflow(name);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private boolean isIntact(Document document, Path path, CachedFile cached) throws IOException {
+        if (cached.size != document.getFileSize() || !Files.exists(path) || Files.size(path) != cached.size) {
+            return false;
+        }
+        if (cached.verified || document.getContentHash() == null) {
+            return true;
+        }
+        // Left over from a previous run: hash once before trusting it
+        MessageDigest digest = newDigest();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(path), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        cached.verified = document.getContentHash().equals(HexFormat.of().formatHex(digest.digest()));
+        return cached.verified;
+    }
+
+    /**
+     * Evict least recently used files; the file just written is kept
+     */
+    private void evictOverflow(String keep) {
+        Iterator<Map.Entry<String, CachedFile>> iterator = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedFile> entry = iterator.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            cachedBytes -= entry.getValue().size;
+            iterator.remove();
+            scheduleDelete(entry.getKey());
+            evictions.increment();
+        }
+    }
+
+    private synchronized void remove(String name) {
+        CachedFile removed = entries.remove(name);
+        if (removed != null) {
+            cachedBytes -= removed.size;
+        }
+        scheduleDelete(name);
+    }
+
+    /**
+     * Delete the file once readers that were already handed its path have opened it
+     */
+    private void scheduleDelete(String name) {
+        pendingDeletes.put(name, System.currentTimeMillis() + deleteDelayMillis);
+    }
+
+    /**
+     * Index files left by a previous run (oldest first) and drop unfinished temporary files
+     */
+    private void loadExistingFiles() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(root)) {
+            files.sorted(Comparator.comparingLong(this::lastModified)).forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    deleteQuietly(path);
+                    return;
+                }
+                try {
+                    long size = Files.size(path);
+                    entries.put(name, new CachedFile(size, false));
+                    cachedBytes += size;
+                } catch (IOException e) {
+                    deleteQuietly(path);
+                }
+            });
+            evictOverflow(null);
+            log.info("💾 Document disk cache: {} files, {} bytes in {}", entries.size(), cachedBytes, root);
+        } catch (IOException e) {
+            log.warn("⚠️ Could not read document disk cache {}: {}", root, e.getMessage());
+        }
+    }
+
+    /**
+     * {id}-{version}: the content hash, or a fingerprint of the storage location for legacy documents
+     */
+    private String fileName(Document document) {
+        String version = document.getContentHash() != null
+                ? document.getContentHash()
+                : Integer.toHexString(Objects.hash(document.getStorageType(), document.getStorageKey(),
+                        document.getFileSize(), document.getCreatedDate()));
+        return document.getId() + "-" + version;
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("⚠️ Could not delete cached file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Opens the document content from its storage on a cache miss
+     */
+    public interface ContentLoader {
+        InputStream open() throws IOException;
+    }
+
+    private static class CachedFile {
+        private final long size;
+        private volatile boolean verified;
+
+        private CachedFile(long size, boolean verified) {
+            this.size = size;
+            this.verified = verified;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.aslaw.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reclaims the storage of soft deleted documents in the background.
+ * Each document is purged in its own short transaction: the base64 content
+ * row, the thumbnail and the document row are deleted and its blob reference
+ * is released (the blob content goes with the last reference). Soft deleted rows are
+ * invisible to JPA, so they are read with plain JDBC.
+ */
+@Slf4j
+@Service
+public class DocumentPurgeService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentBlobStore blobStore;
+    private final DocumentStorageRegistry storageRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.purge.batch-size:50}")
+    private int batchSize;
+
+    @Autowired
+    public DocumentPurgeService(JdbcTemplate jdbcTemplate, DocumentBlobStore blobStore,
+                                DocumentStorageRegistry storageRegistry, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.storageRegistry = storageRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Purge one batch of soft deleted documents
+     */
+    @Scheduled(fixedDelayString = "${app.storage.purge.interval-ms:60000}", initialDelay = 30000)
+    public void purgeDeletedDocuments() {
+        List<DeletedDocument> batch = jdbcTemplate.query(
+            "SELECT id, content_hash, storage_type, storage_key FROM documents " +
+            "WHERE deleted = true ORDER BY deleted_date ASC LIMIT ?",
+            (rs, rowNum) -> new DeletedDocument(rs.getLong("id"), rs.getString("content_hash"),
+                    rs.getString("storage_type"), rs.getString("storage_key")),
+            batchSize);
+
+        int purged = 0;
+        for (DeletedDocument document : batch) {
+            try {
+                if (purge(document)) {
+                    purged++;
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Could not purge document {}: {}", document.getId(), e.getMessage());
+            }
+        }
+        if (purged > 0) {
+            log.info("🧹 Purged {} deleted documents", purged);
+        }
+    }
+
+    private boolean purge(DeletedDocument document) {
+        Boolean removed = transactionTemplate.execute(status -> {
+            int rows = jdbcTemplate.update("DELETE FROM documents WHERE id = ? AND deleted = true", document.getId());
+            if (rows == 0) {
+                return false;
+            }
+            jdbcTemplate.update("DELETE FROM document_contents WHERE document_id = ?", document.getId());
+            // Explicit: the cascading FK only exists where Liquibase created the table
+            jdbcTemplate.update("DELETE FROM document_thumbnails WHERE document_id = ?", document.getId());
+            if (document.getContentHash() != null) {
+                // Shared content is only released with its last reference
+                blobStore.release(document.getContentHash());
+            }
+            return true;
+        });
+
+        // Binary content stored before deduplication is not reference counted
+        if (Boolean.TRUE.equals(removed) && document.getContentHash() == null && document.getStorageKey() != null
+                && storageRegistry.supports(document.getStorageType())) {
+            try {
+                storageRegistry.get(document.getStorageType()).delete(document.getStorageKey());
+            } catch (IOException e) {
+                log.warn("⚠️ Could not delete document content {}: {}", document.getStorageKey(), e.getMessage());
+            }
+        }
+        return Boolean.TRUE.equals(removed);
+    }
+
+    /**
+     * Storage columns of a soft deleted document row
+     */
+    private static class DeletedDocument {
+        private final Long id;
+        private final String contentHash;
+        private final String storageType;
+        private final String storageKey;
+
+        private DeletedDocument(Long id, String contentHash, String storageType, String storageKey) {
+            this.id = id;
+            this.contentHash = contentHash;
+            this.storageType = storageType;
+            this.storageKey = storageKey;
+        }
+
+        public Long getId() { return id; }
+        public String getContentHash() { return contentHash; }
+        public String getStorageType() { return storageType; }
+        public String getStorageKey() { return storageKey; }
+    }
+}
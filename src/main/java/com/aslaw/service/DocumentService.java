@@ -1,41 +1,117 @@
 package com.aslaw.service;
 
+import com.aslaw.config.FileUploadConfig;
 import com.aslaw.dto.DocumentDTO;
 import com.aslaw.entity.Case;
 import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.entity.DocumentContent;
 import com.aslaw.repository.CaseRepository;
+import com.aslaw.repository.DocumentContentRepository;
 import com.aslaw.repository.DocumentRepository;
 import com.infracore.entity.ActivityLog;
 import com.infracore.service.ActivityLogService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class DocumentService {
 
+    public static final String STORAGE_BASE64 = "base64";
+    public static final String STORAGE_DATABASE = "database";
+    public static final String STORAGE_LOCAL = "local";
+
     private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
     private final CaseRepository caseRepository;
     private final ActivityLogService activityLogService;
+    private final DocumentStorageRegistry storageRegistry;
+    private final DocumentBlobStore blobStore;
+    private final DocumentContentReader contentReader;
+    private final FileUploadConfig fileUploadConfig;
+    private final DocumentCompression compression;
+    private final DocumentContentCache contentCache;
+    private final DocumentDiskCache diskCache;
+    private final DocumentAccessTracker accessTracker;
+    private final PackDocumentStorage packStorage;
+    private final DocumentThumbnailService thumbnailService;
+    private final ContentProofService contentProofService;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public DocumentService(DocumentRepository documentRepository, CaseRepository caseRepository, 
-                          ActivityLogService activityLogService) {
+    public DocumentService(DocumentRepository documentRepository, DocumentContentRepository documentContentRepository,
+                          CaseRepository caseRepository, ActivityLogService activityLogService,
+                          DocumentStorageRegistry storageRegistry, DocumentBlobStore blobStore,
+                          DocumentContentReader contentReader, FileUploadConfig fileUploadConfig,
+                          DocumentCompression compression, DocumentContentCache contentCache,
+                          DocumentDiskCache diskCache, DocumentAccessTracker accessTracker,
+                          PackDocumentStorage packStorage, DocumentThumbnailService thumbnailService,
+                          ContentProofService contentProofService, PlatformTransactionManager transactionManager) {
         this.documentRepository = documentRepository;
+        this.documentContentRepository = documentContentRepository;
         this.caseRepository = caseRepository;
         this.activityLogService = activityLogService;
+        this.storageRegistry = storageRegistry;
+        this.blobStore = blobStore;
+        this.contentReader = contentReader;
+        this.fileUploadConfig = fileUploadConfig;
+        this.compression = compression;
+        this.contentCache = contentCache;
+        this.diskCache = diskCache;
+        this.accessTracker = accessTracker;
+        this.packStorage = packStorage;
+        this.thumbnailService = thumbnailService;
+        this.contentProofService = contentProofService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Storage type used for new uploads ("base64" or any registered storage such as "database", "local")
+     */
+    public String getStorageType() {
+        String provider = fileUploadConfig.getUploadProvider();
+        if (STORAGE_BASE64.equalsIgnoreCase(provider)) {
+            return STORAGE_BASE64;
+        }
+        if (storageRegistry.supports(provider)) {
+            return provider;
+        }
+        return STORAGE_DATABASE;
+    }
+
+    /**
+     * Storage type for new content of a known size: small documents go to pack storage
+     * when it is enabled, everything else to {@link #getStorageType()}
+     *
+     * @param fileSize size in bytes, or -1 when unknown
+     */
+    public String getStorageType(long fileSize) {
+        String storageType = getStorageType();
+        if (!STORAGE_BASE64.equals(storageType) && packStorage.accepts(fileSize)) {
+            return PackDocumentStorage.TYPE;
+        }
+        return storageType;
     }
 
     /**
@@ -89,9 +165,9 @@ public class DocumentService {
     }
 
     /**
-     * Upload document with base64 storage
+     * Upload document (streamed into chunked binary storage, or base64 in legacy mode).
+     * Not transactional: content is written first, metadata in a short transaction afterwards.
      */
-    @Transactional
     public DocumentDTO uploadDocument(MultipartFile file, String title, String description, 
                                     Document.DocumentType type, Long caseId) throws IOException {
         
@@ -100,126 +176,268 @@ public class DocumentService {
             throw new IllegalArgumentException("File cannot be empty");
         }
 
-        // Validate case
-        Case legalCase = caseRepository.findById(caseId)
-                .orElseThrow(() -> new RuntimeException("Case not found with id: " + caseId));
+        try (InputStream inputStream = file.getInputStream()) {
+            return createDocument(title, description, type, caseId, file.getOriginalFilename(),
+                    file.getContentType(), file.getSize(), inputStream, "UPLOAD");
+        }
+    }
 
-        // Convert file to base64
-        byte[] fileBytes = file.getBytes();
-        String base64Content = Base64.getEncoder().encodeToString(fileBytes);
+    /**
+     * Create document from content supplied as a stream (e.g. an assembled upload session)
+     */
+    public DocumentDTO createDocumentFromStream(String title, String description, Document.DocumentType type,
+                                                Long caseId, String fileName, String contentType,
+                                                long fileSize, InputStream inputStream) throws IOException {
+        return createDocument(title, description, type, caseId, fileName, contentType, fileSize, inputStream, "UPLOAD");
+    }
 
-        // Create document entity
-        Document document = new Document();
-        document.setTitle(title);
-        document.setDescription(description);
-        document.setFileName(StringUtils.cleanPath(file.getOriginalFilename()));
-        document.setContentType(file.getContentType());
-        document.setFileSize(file.getSize());
-        document.setFilePath(""); // Empty for base64 storage
-        document.setType(type);
-        document.setLegalCase(legalCase);
-        
-        // Set base64 storage information
-        document.setBase64Content(base64Content);
-        // Temporarily disabled until database migration is applied
-        // document.setStorageType("base64");
-        // document.setIsPrivate(true);
-        
-        // Save document
-        Document savedDocument = documentRepository.save(document);
-        
-        // Log activity
-        this.logDocumentActivity(savedDocument, "UPLOAD");
-        
-        return convertToDTO(savedDocument);
+    private DocumentDTO createDocument(String title, String description, Document.DocumentType type,
+                                       Long caseId, String fileName, String contentType, long fileSize,
+                                       InputStream inputStream, String action) throws IOException {
+
+        // Validate case before any content is written
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found with id: " + caseId);
+        }
+
+        String storageType = getStorageType(fileSize);
+        if (STORAGE_BASE64.equals(storageType)) {
+            // Legacy mode: convert file to base64
+            Document document = newDocument(title, description, type, fileName, contentType, fileSize);
+            document.setStorageType(STORAGE_BASE64);
+            String base64Content = Base64.getEncoder().encodeToString(inputStream.readAllBytes());
+            return saveDocument(document, caseId, base64Content, action);
+        }
+
+        // Stream the file into binary storage, never holding the whole file in memory
+        // nor a database connection; identical content already stored is shared
+        DocumentBlob blob = blobStore.store(storageType, newStorageKey(storageType, caseId, fileName),
+                inputStream, compression.shouldCompress(contentType));
+        return createDocumentForBlob(title, description, type, caseId, fileName, contentType, blob, action);
+    }
+
+    /**
+     * Hash-first upload: create the document from content the server already has.
+     * Content is only shared without proof when the caller can access a case already
+     * holding it; otherwise a {@link ContentProofService.ProofRequiredException} carries
+     * a challenge, and the answer (challengeId, proof) has to come with the retry.
+     * Returns empty when no stored content matches (or the proof is wrong), in which
+     * case the client uploads the file as usual.
+     */
+    public Optional<DocumentDTO> createDocumentFromExistingContent(String title, String description,
+                                                                   Document.DocumentType type, Long caseId,
+                                                                   String fileName, String contentType,
+                                                                   String sha256, long fileSize,
+                                                                   Predicate<Long> canAccessCase,
+                                                                   String challengeId, String proof) throws IOException {
+        if (sha256 == null || !sha256.matches("(?i)[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("sha256 must be a hex encoded SHA-256 digest");
+        }
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found with id: " + caseId);
+        }
+        if (STORAGE_BASE64.equals(getStorageType())) {
+            return Optional.empty();
+        }
+        String hash = sha256.toLowerCase(Locale.ROOT);
+        boolean accessible = documentRepository.findCaseIdsByContentHash(hash).stream().anyMatch(canAccessCase);
+        if (!accessible) {
+            if (challengeId == null) {
+                throw new ContentProofService.ProofRequiredException(contentProofService.issue(hash, fileSize));
+            }
+            Optional<Document> holder = documentRepository.findIdsByContentHash(hash).stream()
+                    .findFirst().flatMap(documentRepository::findById);
+            if (holder.isEmpty() || !contentProofService.verify(challengeId, hash, fileSize, proof,
+                    (offset, length) -> openContent(holder.get(), offset, length))) {
+                return Optional.empty();
+            }
+        }
+        return blobStore.referenceExisting(hash, fileSize)
+                .map(blob -> createDocumentForBlob(title, description, type, caseId, fileName, contentType, blob, "UPLOAD"));
+    }
+
+    /**
+     * Create a document for content that is already stored as a blob (the caller holds one reference).
+     * The reference is released again when the metadata cannot be saved.
+     */
+    DocumentDTO createDocumentForBlob(String title, String description, Document.DocumentType type, Long caseId,
+                                      String fileName, String contentType, DocumentBlob blob, String action) {
+        try {
+            Document document = newDocument(title, description, type, fileName, contentType, blob.getSizeBytes());
+            document.setStorageType(blob.getStorageType());
+            document.setStorageKey(blob.getStorageKey());
+            document.setContentHash(blob.getHash());
+            document.setCompressionCodec(blob.getCodec());
+            document.setStoredSize(blob.getStoredOrOriginalBytes());
+            if (STORAGE_LOCAL.equals(blob.getStorageType())) {
+                document.setFilePath(blob.getStorageKey());
+            }
+            return saveDocument(document, caseId, null, action);
+        } catch (RuntimeException e) {
+            // Metadata was not saved, drop the reference taken for it
+            blobStore.release(blob.getHash());
+            throw e;
+        }
     }
 
     /**
      * Create document from base64 content (for Angular integration)
      */
-    @Transactional
     public DocumentDTO createDocumentFromBase64(String title, String description, 
                                               Document.DocumentType type, Long caseId,
                                               String fileName, String contentType, 
                                               String base64Content) {
         
         // Validate case
-        Case legalCase = caseRepository.findById(caseId)
-                .orElseThrow(() -> new RuntimeException("Case not found with id: " + caseId));
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found with id: " + caseId);
+        }
 
-        // Decode base64 to get file size
+        // Decode base64 to get file size (before any connection is taken)
         byte[] decodedBytes = Base64.getDecoder().decode(base64Content);
         
-        // Create document entity
+        Document document = newDocument(title, description, type, fileName, contentType, (long) decodedBytes.length);
+        document.setStorageType(STORAGE_BASE64);
+        
+        // Save document and its content separately
+        return saveDocument(document, caseId, base64Content, "CREATE");
+    }
+
+    private Document newDocument(String title, String description, Document.DocumentType type,
+                                 String fileName, String contentType, long fileSize) {
         Document document = new Document();
         document.setTitle(title);
         document.setDescription(description);
         document.setFileName(StringUtils.cleanPath(fileName));
         document.setContentType(contentType);
-        document.setFileSize((long) decodedBytes.length);
-        document.setFilePath(""); // Empty for base64 storage
+        document.setFileSize(fileSize);
+        document.setFilePath(""); // Empty unless stored on the local filesystem
         document.setType(type);
-        document.setLegalCase(legalCase);
-        document.setBase64Content(base64Content);
         // Temporarily disabled until database migration is applied
-        // document.setStorageType("base64");
         // document.setIsPrivate(true);
-        
-        // Save document
-        Document savedDocument = documentRepository.save(document);
-        
-        // Log activity
-        this.logDocumentActivity(savedDocument, "CREATE");
-        
-        return convertToDTO(savedDocument);
+        return document;
     }
 
     /**
-     * Download document as base64
+     * Persist the document metadata (and legacy base64 content) in one short transaction,
+     * then queue a thumbnail for image content
      */
-    @Transactional(readOnly = true)
-    public String downloadDocumentAsBase64(Long id) {
-        Document document = findById(id);
-        
-        if (document.getBase64Content() == null || document.getBase64Content().isEmpty()) {
-            throw new RuntimeException("Document content not found: " + document.getFileName());
+    private DocumentDTO saveDocument(Document document, Long caseId, String base64Content, String action) {
+        DocumentDTO documentDTO = transactionTemplate.execute(status -> {
+            Case legalCase = caseRepository.findById(caseId)
+                    .orElseThrow(() -> new RuntimeException("Case not found with id: " + caseId));
+            document.setLegalCase(legalCase);
+            if (document.getContentHash() != null) {
+                // The blob may have been tiered since it was stored
+                blobStore.applyCurrentLocation(document);
+            }
+            
+            Document savedDocument = documentRepository.save(document);
+            if (base64Content != null) {
+                documentContentRepository.save(new DocumentContent(savedDocument.getId(), base64Content));
+            }
+            
+            // Log activity
+            this.logDocumentActivity(savedDocument, action);
+            
+            return convertToDTO(savedDocument);
+        });
+        thumbnailService.scheduleThumbnail(documentDTO.getId(), documentDTO.getContentType(), documentDTO.getFileSize());
+        return documentDTO;
+    }
+
+    /**
+     * Open a byte window of the document content as a stream
+     */
+    public InputStream openDocumentContent(Document document, long offset, long length) throws IOException {
+        return openContent(document, offset, length);
+    }
+
+    /**
+     * Write a byte window of the document content to the output (zero-copy for local files)
+     */
+    public void writeDocumentContent(Document document, long offset, long length, OutputStream outputStream) throws IOException {
+        if (isCached(document)) {
+            try (InputStream inputStream = openContent(document, offset, length)) {
+                inputStream.transferTo(outputStream);
+            }
+            return;
         }
-        
-        return document.getBase64Content();
+        Path cachedPath = diskCachedPath(document);
+        if (cachedPath != null) {
+            diskCache.transferTo(cachedPath, offset, length, outputStream);
+            return;
+        }
+        contentReader.transferTo(document, offset, length, outputStream);
     }
 
     /**
-     * Download document as byte array resource
+     * Open a byte window of the content, through the content cache when the document is cacheable
      */
-    @Transactional(readOnly = true)
-    public Resource downloadDocumentAsResource(Long id) {
-        Document document = findById(id);
-        
-        if (document.getBase64Content() == null || document.getBase64Content().isEmpty()) {
-            throw new RuntimeException("Document content not found: " + document.getFileName());
+    private InputStream openContent(Document document, long offset, long length) throws IOException {
+        if (!isCached(document)) {
+            return contentReader.open(document, offset, length);
         }
-        
-        try {
-            byte[] decodedBytes = Base64.getDecoder().decode(document.getBase64Content());
-            return new ByteArrayResource(decodedBytes);
-        } catch (Exception e) {
-            throw new RuntimeException("Error decoding document content: " + document.getFileName(), e);
+        ByteBuffer content = contentCache.get(document.getId());
+        if (content == null) {
+            try (InputStream inputStream = contentReader.open(document)) {
+                content = contentCache.put(document.getId(), inputStream, document.getFileSize());
+            }
         }
+        return new ByteBufferInputStream(content, offset, length);
     }
 
     /**
-     * Update document metadata (not content)
+     * Disk cache file of the document content when it is already cached; a miss queues
+     * a background fill and returns null, so the caller reads from storage this time
+     */
+    private Path diskCachedPath(Document document) {
+        if (!diskCache.isCacheable(document) || isCached(document) || contentReader.getLocalPath(document) != null) {
+            return null;
+        }
+        Path path = diskCache.getIfCached(document);
+        if (path == null) {
+            diskCache.scheduleFill(document, () -> contentReader.open(document));
+        }
+        return path;
+    }
+
+    /**
+     * Whether the content is served through the in-memory cache: small documents that are
+     * already cached or hot. Local uncompressed files are served zero-copy from the page
+     * cache and are not cached again.
+     */
+    private boolean isCached(Document document) {
+        return contentCache.isCacheable(document) && contentReader.getLocalPath(document) == null
+                && (contentCache.contains(document.getId()) || accessTracker.isHot(document.getId()));
+    }
+
+    /**
+     * Absolute path of the document content on the local filesystem (its local
+     * storage file or its disk cache file), or null
+     */
+    public Path getLocalContentPath(Document document) {
+        Path localPath = contentReader.getLocalPath(document);
+        return localPath != null ? localPath : diskCachedPath(document);
+    }
+
+    /**
+     * Update document metadata (not content) with a targeted UPDATE, so the cost
+     * does not depend on the file size
      */
     @Transactional
     public DocumentDTO updateDocument(Long id, String title, String description, Document.DocumentType type) {
-        Document document = findById(id);
+        int updated = documentRepository.updateMetadata(id, title, description, type, LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("Document not found with id: " + id);
+        }
         
-        document.setTitle(title);
-        document.setDescription(description);
-        document.setType(type);
-        document.setUpdatedDate(LocalDateTime.now());
+        contentCache.invalidate(id);
+        diskCache.invalidate(id);
         
-        Document updatedDocument = documentRepository.save(document);
+        // Reload metadata with case details for the response
+        Document updatedDocument = documentRepository.findByIdWithCaseDetails(id)
+                .orElseThrow(() -> new RuntimeException("Document not found with id: " + id));
         
         // Log activity
         this.logDocumentActivity(updatedDocument, "UPDATE");
@@ -228,7 +446,8 @@ public class DocumentService {
     }
 
     /**
-     * Delete document
+     * Delete document: only the metadata row is touched here, the content is
+     * reclaimed in the background by {@link DocumentPurgeService}
      */
     @Transactional
     public void deleteDocument(Long id) {
@@ -237,8 +456,10 @@ public class DocumentService {
         // Log activity before deletion
         this.logDocumentActivity(document, "DELETE");
         
-        // Delete from database (base64 content will be deleted automatically)
-        documentRepository.delete(document);
+        // Hidden from all queries right away
+        documentRepository.softDeleteById(id, LocalDateTime.now());
+        contentCache.invalidate(id);
+        diskCache.invalidate(id);
         
         System.out.println("📋 Document deleted: " + document.getTitle() + " (ID: " + document.getId() + ")");
     }
@@ -266,23 +487,30 @@ public class DocumentService {
     }
 
     /**
-     * Get storage statistics
+     * Get storage statistics (logical bytes as uploaded vs bytes actually stored)
      */
     @Transactional(readOnly = true)
     public DocumentStorageStats getStorageStats() {
-        List<Document> allDocuments = documentRepository.findAll();
+        long totalDocuments = documentRepository.count();
+        long base64Documents = documentRepository.countBase64Documents();
+        long totalSize = documentRepository.sumFileSize();
         
-        long totalDocuments = allDocuments.size();
-        // Temporarily disabled until database migration is applied
-        long base64Documents = allDocuments.size(); // Assume all are base64 for now
-        // .mapToLong(doc -> "base64".equals(doc.getStorageType()) ? 1 : 0)
-        // .sum();
+        // Blobs are counted once however many documents share them; base64 text is stored as is
+        long storedSize = blobStore.getStoredBytes() + documentContentRepository.sumBase64Length();
         
-        long totalSize = allDocuments.stream()
-                .mapToLong(doc -> doc.getFileSize() != null ? doc.getFileSize() : 0)
-                .sum();
-        
-        return new DocumentStorageStats(totalDocuments, base64Documents, totalSize);
+        return new DocumentStorageStats(totalDocuments, base64Documents, totalSize, storedSize);
+    }
+
+    /**
+     * New storage key: cases/{caseId}/{uuid}.{ext} on the local filesystem, a UUID elsewhere
+     */
+    String newStorageKey(String storageType, Long caseId, String fileName) {
+        String uuid = UUID.randomUUID().toString();
+        if (!STORAGE_LOCAL.equals(storageType)) {
+            return uuid;
+        }
+        String extension = StringUtils.getFilenameExtension(fileName);
+        return "cases/" + caseId + "/" + uuid + (extension != null ? "." + extension : "");
     }
 
     /**
@@ -297,7 +525,7 @@ public class DocumentService {
     /**
      * Log document activity
      */
-    private void logDocumentActivity(Document document, String action) {
+    void logDocumentActivity(Document document, String action) {
         try {
             String clientName = document.getLegalCase() != null && document.getLegalCase().getClient() != null ? 
                 document.getLegalCase().getClient().getFirstName() + " " + document.getLegalCase().getClient().getLastName() : 
@@ -324,16 +552,21 @@ public class DocumentService {
         private final long totalDocuments;
         private final long base64Documents;
         private final long totalSizeBytes;
+        private final long storedSizeBytes;
 
-        public DocumentStorageStats(long totalDocuments, long base64Documents, long totalSizeBytes) {
+        public DocumentStorageStats(long totalDocuments, long base64Documents, long totalSizeBytes, long storedSizeBytes) {
             this.totalDocuments = totalDocuments;
             this.base64Documents = base64Documents;
             this.totalSizeBytes = totalSizeBytes;
+            this.storedSizeBytes = storedSizeBytes;
         }
 
         public long getTotalDocuments() { return totalDocuments; }
         public long getBase64Documents() { return base64Documents; }
         public long getTotalSizeBytes() { return totalSizeBytes; }
         public double getTotalSizeMB() { return Math.round(totalSizeBytes / (1024.0 * 1024.0) * 100.0) / 100.0; }
+        public long getStoredSizeBytes() { return storedSizeBytes; }
+        public double getStoredSizeMB() { return Math.round(storedSizeBytes / (1024.0 * 1024.0) * 100.0) / 100.0; }
+        public double getStorageRatio() { return totalSizeBytes > 0 ? Math.round(storedSizeBytes * 1000.0 / totalSizeBytes) / 1000.0 : 1.0; }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.aslaw.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Backend that holds document bytes under a storage key.
+ * Implementations are picked by {@link #getType()}, which is the value stored
+ * in documents.storage_type / document_blobs.storage_type.
+ */
+public interface DocumentStorage {
+
+    /**
+     * Storage type identifier ("database", "local", "object", ...)
+     */
+    String getType();
+
+    /**
+     * Stream the input into the storage under the key
+     *
+     * @return number of bytes written
+     */
+    long write(String storageKey, InputStream inputStream) throws IOException;
+
+    /**
+     * Open a stream that writes content under the key; the write is complete once the stream is closed
+     */
+    OutputStream openOutputStream(String storageKey) throws IOException;
+
+    /**
+     * Open {@code length} bytes starting at {@code offset}
+     */
+    InputStream openInputStream(String storageKey, long offset, long length) throws IOException;
+
+    /**
+     * Copy a byte window to the output; backends with a faster path than streaming override this
+     */
+    default void transferTo(String storageKey, long offset, long length, OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = openInputStream(storageKey, offset, length)) {
+            inputStream.transferTo(outputStream);
+        }
+    }
+
+    /**
+     * Delete the content of the key
+     */
+    void delete(String storageKey) throws IOException;
+
+    /**
+     * Path of the content on the local filesystem, when the backend keeps plain files
+     */
+    default Path resolveLocalPath(String storageKey) {
+        return null;
+    }
+}
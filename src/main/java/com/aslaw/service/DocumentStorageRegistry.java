@@ -0,0 +1,42 @@
+package com.aslaw.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up the {@link DocumentStorage} backend for a storage type
+ */
+@Service
+public class DocumentStorageRegistry {
+
+    private final Map<String, DocumentStorage> storages;
+
+    @Autowired
+    public DocumentStorageRegistry(List<DocumentStorage> storages) {
+        this.storages = storages.stream()
+                .collect(Collectors.toMap(DocumentStorage::getType, Function.identity()));
+    }
+
+    /**
+     * Backend for the given type
+     */
+    public DocumentStorage get(String storageType) {
+        DocumentStorage storage = storages.get(storageType);
+        if (storage == null) {
+            throw new IllegalArgumentException("Unknown storage type: " + storageType);
+        }
+        return storage;
+    }
+
+    /**
+     * Whether a backend exists for the type (legacy base64 content has none)
+     */
+    public boolean supports(String storageType) {
+        return storageType != null && storages.containsKey(storageType);
+    }
+}
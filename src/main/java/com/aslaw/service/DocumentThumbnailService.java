@@ -0,0 +1,236 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentThumbnail;
+import com.aslaw.repository.DocumentRepository;
+import com.aslaw.repository.DocumentThumbnailRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates thumbnails of image documents in the background.
+ * Uploads schedule the work on a small bounded pool of low priority daemon
+ * threads, so decoding never runs on (or competes much with) request
+ * threads; when the queue is full the job is dropped and generated again on
+ * the first thumbnail request. Images are decoded with source subsampling
+ * so a large scan never has to be decoded at full resolution.
+ */
+@Slf4j
+@Service
+public class DocumentThumbnailService {
+
+    private static final String THUMBNAIL_JPEG = "image/jpeg";
+    private static final String THUMBNAIL_PNG = "image/png";
+
+    private final DocumentThumbnailRepository thumbnailRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentContentReader contentReader;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.thumbnails.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.thumbnails.max-dimension:256}")
+    private int maxDimension;
+
+    @Value("${app.thumbnails.max-source-bytes:26214400}")
+    private long maxSourceBytes;
+
+    @Value("${app.thumbnails.max-source-pixels:100000000}")
+    private long maxSourcePixels;
+
+    @Autowired
+    public DocumentThumbnailService(DocumentThumbnailRepository thumbnailRepository, DocumentRepository documentRepository,
+                                    DocumentContentReader contentReader, PlatformTransactionManager transactionManager,
+                                    @Value("${app.thumbnails.threads:1}") int threads,
+                                    @Value("${app.thumbnails.queue-capacity:200}") int queueCapacity) {
+        this.thumbnailRepository = thumbnailRepository;
+        this.documentRepository = documentRepository;
+        this.contentReader = contentReader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Whether a thumbnail can be generated for the content type and size
+     */
+    public boolean supports(String contentType, Long fileSize) {
+        return enabled && contentType != null && contentType.startsWith("image/")
+                && fileSize != null && fileSize > 0 && fileSize <= maxSourceBytes
+                && ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    /**
+     * Queue thumbnail generation for an image document
+     *
+     * @return true when generation is queued or already running
+     */
+    public boolean scheduleThumbnail(Long documentId, String contentType, Long fileSize) {
+        if (documentId == null || !supports(contentType, fileSize)) {
+            return false;
+        }
+        if (!pending.add(documentId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(documentId);
+                } catch (Exception e) {
+                    log.warn("⚠️ Could not generate thumbnail of document {}: {}", documentId, e.getMessage());
+                } finally {
+                    pending.remove(documentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Queue full: it is generated on demand later
+            pending.remove(documentId);
+            return false;
+        }
+    }
+
+    /**
+     * Stored thumbnail of the document, if generated
+     */
+    public Optional<DocumentThumbnail> getThumbnail(Long documentId) {
+        return thumbnailRepository.findById(documentId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(Long documentId) throws IOException {
+        if (thumbnailRepository.existsById(documentId)) {
+            return;
+        }
+        Optional<Document> documentOpt = documentRepository.findById(documentId);
+        if (documentOpt.isEmpty()) {
+            return;
+        }
+
+        BufferedImage source;
+        try (InputStream inputStream = contentReader.open(documentOpt.get());
+             ImageInputStream imageInput = ImageIO.createImageInputStream(inputStream)) {
+            source = readSubsampled(imageInput);
+        }
+        if (source == null) {
+            return;
+        }
+
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage thumbnail = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        // Transparent images stay PNG, everything else becomes a small JPEG
+        String contentType = alpha ? THUMBNAIL_PNG : THUMBNAIL_JPEG;
+        byte[] data = encode(thumbnail, contentType);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                thumbnailRepository.save(new DocumentThumbnail(documentId, contentType, width, height, data)));
+        } catch (DataIntegrityViolationException e) {
+            // Generated concurrently, or the document was purged meanwhile
+        }
+    }
+
+    /**
+     * Decode the first image, skipping pixels so the result is at most about twice the thumbnail size
+     */
+    private BufferedImage readSubsampled(ImageInputStream imageInput) throws IOException {
+        if (imageInput == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(imageInput, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            if ((long) width * height > maxSourcePixels) {
+                log.warn("⚠️ Skipping thumbnail of a {}x{} image", width, height);
+                return null;
+            }
+            ImageReadParam param = reader.getDefaultReadParam();
+            int step = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+            param.setSourceSubsampling(step, step, 0, 0);
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private byte[] encode(BufferedImage image, String contentType) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByMIMEType(contentType).next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (THUMBNAIL_JPEG.equals(contentType)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(0.8f);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,229 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Case;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.repository.DocumentBlobRepository;
+import com.aslaw.repository.DocumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Background hot/cold tiering of document content.
+ * Blobs whose documents are all older than {@code cold-after-days} or belong
+ * to closed cases, and none of which is currently hot, are copied to the cold storage type, re-pointed in a short
+ * transaction, and removed from the hot tier after a grace period, so
+ * downloads still streaming from (or sendfile reads handed) the old location
+ * are not cut off. Reads follow the per-document storage type, so moves are
+ * transparent to the download paths.
+ */
+@Slf4j
+@Service
+public class DocumentTieringService {
+
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final DocumentBlobRepository blobRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentStorageRegistry storageRegistry;
+    private final DocumentAccessTracker accessTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.tiering.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.storage.tiering.cold-storage:object}")
+    private String coldStorageType;
+
+    @Value("${app.storage.tiering.cold-after-days:90}")
+    private int coldAfterDays;
+
+    @Value("${app.storage.tiering.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.storage.tiering.delete-delay-ms:60000}")
+    private long deleteDelayMillis;
+
+    // Old copies of moved blobs, deleted once their grace period is over
+    private final List<PendingDelete> pendingDeletes = new ArrayList<>();
+
+    // Keyset cursor over the candidates, so hot or failing blobs do not block the ones after them
+    private LocalDateTime cursorDate = CURSOR_START;
+    private String cursorHash = "";
+
+    @Autowired
+    public DocumentTieringService(DocumentBlobRepository blobRepository, DocumentRepository documentRepository,
+                                  DocumentStorageRegistry storageRegistry, DocumentAccessTracker accessTracker,
+                                  PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.documentRepository = documentRepository;
+        this.storageRegistry = storageRegistry;
+        this.accessTracker = accessTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Move one batch of cold blobs to the cold tier, continuing after the candidates of the
+     * previous run and starting over once the end is reached
+     */
+    @Scheduled(fixedDelayString = "${app.storage.tiering.interval-ms:3600000}", initialDelay = 60000)
+    public synchronized void runTiering() {
+        if (!enabled) {
+            return;
+        }
+        if (!storageRegistry.supports(coldStorageType)) {
+            log.warn("⚠️ Tiering skipped, unknown cold storage type: {}", coldStorageType);
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(coldAfterDays);
+        List<DocumentBlob> candidates = blobRepository.findColdBlobs(coldStorageType, cutoff, Case.CaseStatus.CLOSED,
+                cursorDate, cursorHash, PageRequest.of(0, batchSize));
+        if (candidates.size() < batchSize) {
+            cursorDate = CURSOR_START;
+            cursorHash = "";
+        } else {
+            DocumentBlob last = candidates.get(candidates.size() - 1);
+            cursorDate = last.getCreatedDate();
+            cursorHash = last.getHash();
+        }
+
+        int moved = 0;
+        for (DocumentBlob blob : candidates) {
+            // Old but still frequently downloaded content stays on the hot tier
+            if (documentRepository.findIdsByContentHash(blob.getHash()).stream().anyMatch(accessTracker::isHot)) {
+                continue;
+            }
+            try {
+                if (moveBlob(blob, coldStorageType)) {
+                    moved++;
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Could not move blob {} to {}: {}", blob.getHash(), coldStorageType, e.getMessage());
+            }
+        }
+        if (moved > 0) {
+            log.info("📦 Moved {} document blobs to {} storage", moved, coldStorageType);
+        }
+    }
+
+    /**
+     * Copy a blob to the target storage, re-point the blob and its documents, then drop the old copy
+     *
+     * @return true when the blob was moved
+     */
+    public boolean moveBlob(DocumentBlob blob, String targetType) throws IOException {
+        DocumentStorage source = storageRegistry.get(blob.getStorageType());
+        DocumentStorage target = storageRegistry.get(targetType);
+        String sourceType = blob.getStorageType();
+        String sourceKey = blob.getStorageKey();
+        String targetKey = targetKeyFor(targetType, blob.getHash());
+
+        // Copy outside of any transaction; only the re-pointing below holds a connection
+        target.delete(targetKey);
+        // Stored bytes are copied as is, compressed blobs stay compressed
+        long storedBytes = blob.getStoredOrOriginalBytes();
+        long written;
+        try (InputStream inputStream = source.openInputStream(sourceKey, 0, storedBytes)) {
+            written = target.write(targetKey, inputStream);
+        }
+        if (written != storedBytes) {
+            target.delete(targetKey);
+            throw new IOException("Size mismatch while copying blob " + blob.getHash() + ": " + written);
+        }
+
+        Boolean repointed = transactionTemplate.execute(status ->
+            blobRepository.findByHashForUpdate(blob.getHash())
+                .filter(current -> sourceType.equals(current.getStorageType()) && sourceKey.equals(current.getStorageKey()))
+                .map(current -> {
+                    current.setStorageType(targetType);
+                    current.setStorageKey(targetKey);
+                    String filePath = DocumentService.STORAGE_LOCAL.equals(targetType) ? targetKey : "";
+                    documentRepository.updateStorageByContentHash(current.getHash(), targetType, targetKey, filePath);
+                    return true;
+                })
+                .orElse(false));
+
+        if (!Boolean.TRUE.equals(repointed)) {
+            // Blob was released or moved concurrently
+            target.delete(targetKey);
+            return false;
+        }
+
+        // Readers that resolved the old location just before the move may still be reading it
+        synchronized (pendingDeletes) {
+            pendingDeletes.add(new PendingDelete(sourceType, sourceKey, System.currentTimeMillis() + deleteDelayMillis));
+        }
+        return true;
+    }
+
+    /**
+     * Delete old copies of moved blobs whose grace period is over
+     */
+    @Scheduled(fixedDelayString = "${app.storage.tiering.delete-delay-ms:60000}", initialDelay = 60000)
+    public void deleteMovedSources() {
+        deletePendingSources(System.currentTimeMillis());
+    }
+
+    /**
+     * Nothing is served after shutdown, so the remaining old copies can go now
+     */
+    @PreDestroy
+    public void deleteAllMovedSources() {
+        deletePendingSources(Long.MAX_VALUE);
+    }
+
+    private void deletePendingSources(long now) {
+        List<PendingDelete> due = new ArrayList<>();
+        synchronized (pendingDeletes) {
+            Iterator<PendingDelete> iterator = pendingDeletes.iterator();
+            while (iterator.hasNext()) {
+                PendingDelete pending = iterator.next();
+                if (pending.deleteAfter <= now) {
+                    due.add(pending);
+                    iterator.remove();
+                }
+            }
+        }
+        for (PendingDelete pending : due) {
+            try {
+                storageRegistry.get(pending.storageType).delete(pending.storageKey);
+            } catch (IOException e) {
+                log.warn("⚠️ Could not delete moved blob content {}: {}", pending.storageKey, e.getMessage());
+            }
+        }
+    }
+
+    private String targetKeyFor(String targetType, String hash) {
+        if (DocumentService.STORAGE_DATABASE.equals(targetType)) {
+            return hash;
+        }
+        String key = ObjectStoreDocumentStorage.keyFor(hash);
+        return DocumentService.STORAGE_LOCAL.equals(targetType) ? "blobs/" + key : key;
+    }
+
+    private static class PendingDelete {
+        private final String storageType;
+        private final String storageKey;
+        private final long deleteAfter;
+
+        private PendingDelete(String storageType, String storageKey, long deleteAfter) {
+            this.storageType = storageType;
+            this.storageKey = storageKey;
+            this.deleteAfter = deleteAfter;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.aslaw.service;
+
+import com.aslaw.dto.DocumentDTO;
+import com.aslaw.entity.Document;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.repository.CaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports a ZIP archive into a case, one document per file entry.
+ * The archive is read as a stream, entry by entry, and each entry is written
+ * straight into document storage; nothing is extracted to memory or disk.
+ * Entry count, entry size, total size and compression ratio are limited so a
+ * zip bomb is rejected after reading at most the configured number of bytes.
+ */
+@Slf4j
+@Service
+public class DocumentZipImportService {
+
+    private final DocumentService documentService;
+    private final DocumentBlobStore blobStore;
+    private final DocumentCompression compression;
+    private final CaseRepository caseRepository;
+
+    @Value("${app.upload.zip-import.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${app.upload.zip-import.max-entry-size:104857600}")
+    private long maxEntrySize;
+
+    @Value("${app.upload.zip-import.max-total-size:1073741824}")
+    private long maxTotalSize;
+
+    @Value("${app.upload.zip-import.max-compression-ratio:100}")
+    private int maxCompressionRatio;
+
+    // Limit of the base64 provider, which holds each file in memory while storing it as text
+    @Value("${app.storage.max-file-size:50MB}")
+    private DataSize base64MaxFileSize;
+
+    @Autowired
+    public DocumentZipImportService(DocumentService documentService, DocumentBlobStore blobStore,
+                                    DocumentCompression compression, CaseRepository caseRepository) {
+        this.documentService = documentService;
+        this.blobStore = blobStore;
+        this.compression = compression;
+        this.caseRepository = caseRepository;
+    }
+
+    /**
+     * Import every file of the archive into the case.
+     * Files that fail are reported in their result; exceeding a limit stops the import.
+     */
+    public ZipImportResult importArchive(InputStream archive, Long caseId) throws IOException {
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found with id: " + caseId);
+        }
+
+        ZipImportResult importResult = new ZipImportResult();
+        CountingInputStream compressed = new CountingInputStream(archive);
+        ZipInputStream zip = new ZipInputStream(compressed);
+        long totalBytes = 0;
+        int entries = 0;
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                // Every entry counts, skipped ones included: they are inflated all the same
+                if (++entries > maxEntries) {
+                    throw new ZipLimitException("Archive has more than " + maxEntries + " entries");
+                }
+                String fileName = baseName(entry.getName());
+                if (entry.isDirectory() || isIgnored(entry.getName(), fileName)) {
+                    LimitedEntryInputStream skipped = new LimitedEntryInputStream(zip, compressed, totalBytes);
+                    skipped.skipRemaining();
+                    totalBytes += skipped.getBytesRead();
+                    continue;
+                }
+
+                DocumentBatchUploadService.BatchUploadResult result = new DocumentBatchUploadService.BatchUploadResult(fileName);
+                importResult.getResults().add(result);
+                LimitedEntryInputStream entryStream = new LimitedEntryInputStream(zip, compressed, totalBytes);
+                try {
+                    result.setDocument(importEntry(fileName, entry.getSize(), entryStream, caseId));
+                } catch (ZipLimitException | ZipException e) {
+                    result.setError(e.getMessage());
+                    throw e;
+                } catch (Exception e) {
+                    result.setError("File processing error: " + e.getMessage());
+                    log.warn("⚠️ Zip import of {} failed: {}", entry.getName(), e.getMessage());
+                }
+                // Skip whatever a failed entry left unread, still counting it against the limits
+                entryStream.skipRemaining();
+                totalBytes += entryStream.getBytesRead();
+            }
+        } catch (ZipLimitException | ZipException e) {
+            importResult.setAbortReason(e.getMessage());
+            log.warn("⚠️ Zip import into case {} aborted: {}", caseId, e.getMessage());
+        }
+        log.info("📦 Imported {} documents from zip into case {}", importResult.getImported(), caseId);
+        return importResult;
+    }
+
+    private DocumentDTO importEntry(String fileName, long size, InputStream content, Long caseId) throws IOException {
+        String contentType = MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        String title = StringUtils.stripFilenameExtension(fileName);
+        Document.DocumentType type = inferDocumentType(fileName);
+
+        // The size is known when the archive records it in the entry header (-1 otherwise)
+        String storageType = documentService.getStorageType(size);
+        if (DocumentService.STORAGE_BASE64.equals(storageType)) {
+            // Legacy mode holds the entry in memory, so it is capped at the base64 file size limit
+            long limit = Math.min(base64MaxFileSize.toBytes(), maxEntrySize);
+            if (size > limit) {
+                throw new IOException("File exceeds the maximum size of " + limit + " bytes for base64 storage");
+            }
+            byte[] bytes = content.readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE - 8));
+            if (bytes.length > limit) {
+                throw new IOException("File exceeds the maximum size of " + limit + " bytes for base64 storage");
+            }
+            return documentService.createDocumentFromStream(title, null, type, caseId, fileName, contentType,
+                    bytes.length, new ByteArrayInputStream(bytes));
+        }
+
+        DocumentBlob blob = blobStore.store(storageType, documentService.newStorageKey(storageType, caseId, fileName),
+                content, compression.shouldCompress(contentType));
+        return documentService.createDocumentForBlob(title, null, type, caseId, fileName, contentType, blob, "UPLOAD");
+    }
+
+    /**
+     * Document type from keywords in the file name (English and Turkish), then from the extension
+     */
+    Document.DocumentType inferDocumentType(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (containsAny(name, "complaint", "petition", "dava", "dilekce", "dilekçe")) {
+            return Document.DocumentType.COMPLAINT;
+        }
+        if (containsAny(name, "answer", "response", "cevap")) {
+            return Document.DocumentType.ANSWER;
+        }
+        if (containsAny(name, "motion", "talep")) {
+            return Document.DocumentType.MOTION;
+        }
+        if (containsAny(name, "contract", "agreement", "sozlesme", "sözleşme")) {
+            return Document.DocumentType.CONTRACT;
+        }
+        if (containsAny(name, "exhibit", "evidence", "delil")) {
+            return Document.DocumentType.EXHIBIT;
+        }
+        if (containsAny(name, "letter", "mail", "correspondence", "yazisma", "yazışma")) {
+            return Document.DocumentType.CORRESPONDENCE;
+        }
+
+        String extension = StringUtils.getFilenameExtension(name);
+        if (extension == null) {
+            return Document.DocumentType.OTHER;
+        }
+        return switch (extension) {
+            case "eml", "msg" -> Document.DocumentType.CORRESPONDENCE;
+            case "jpg", "jpeg", "png", "gif", "tif", "tiff", "bmp", "heic", "mp3", "mp4", "wav" -> Document.DocumentType.EXHIBIT;
+            default -> Document.DocumentType.OTHER;
+        };
+    }
+
+    private boolean containsAny(String value, String... keywords) {
+        for (String keyword : keywords) {
+            if (value.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * File name without the folders of the archive
+     */
+    private String baseName(String entryName) {
+        String name = entryName.replace('\\', '/');
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * OS metadata such as __MACOSX/ resource forks, .DS_Store or Thumbs.db
+     */
+    private boolean isIgnored(String entryName, String fileName) {
+        return fileName.isEmpty() || fileName.startsWith(".") || entryName.startsWith("__MACOSX/")
+                || fileName.equalsIgnoreCase("Thumbs.db") || fileName.equalsIgnoreCase("desktop.ini");
+    }
+
+    /**
+     * Counts the compressed bytes read from the upload
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() { return count; }
+    }
+
+    /**
+     * Reads the current entry, failing as soon as the entry size, the total size or
+     * the compression ratio limit is exceeded. Closing it leaves the archive open.
+     */
+    private class LimitedEntryInputStream extends InputStream {
+        private final ZipInputStream zip;
+        private final CountingInputStream compressed;
+        private final long previousTotal;
+        private long bytesRead;
+
+        private LimitedEntryInputStream(ZipInputStream zip, CountingInputStream compressed, long previousTotal) {
+            this.zip = zip;
+            this.compressed = compressed;
+            this.previousTotal = previousTotal;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = zip.read(b, off, len);
+            if (read > 0) {
+                bytesRead += read;
+                checkLimits();
+            }
+            return read;
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // Discard
+            }
+        }
+
+        long getBytesRead() { return bytesRead; }
+
+        private void checkLimits() throws ZipLimitException {
+            long total = previousTotal + bytesRead;
+            if (bytesRead > maxEntrySize) {
+                throw new ZipLimitException("Archive entry exceeds the maximum size of " + maxEntrySize + " bytes");
+            }
+            if (total > maxTotalSize) {
+                throw new ZipLimitException("Archive content exceeds the maximum size of " + maxTotalSize + " bytes");
+            }
+            // Checked over the whole archive, small highly compressible files are fine on their own
+            if (total > 1024 * 1024 && total > (long) maxCompressionRatio * Math.max(1, compressed.getCount())) {
+                throw new ZipLimitException("Archive compression ratio exceeds " + maxCompressionRatio);
+            }
+        }
+
+        @Override
+        public void close() {
+            // The archive stream stays open for the next entry
+        }
+    }
+
+    /**
+     * A zip bomb limit was exceeded
+     */
+    public static class ZipLimitException extends IOException {
+        public ZipLimitException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Per-file results of an import; abortReason is set when the import stopped early
+     */
+    public static class ZipImportResult {
+        private final List<DocumentBatchUploadService.BatchUploadResult> results = new ArrayList<>();
+        private String abortReason;
+
+        public List<DocumentBatchUploadService.BatchUploadResult> getResults() { return results; }
+        public long getImported() { return results.stream().filter(DocumentBatchUploadService.BatchUploadResult::isSuccess).count(); }
+        public long getFailed() { return results.size() - getImported(); }
+        public String getAbortReason() { return abortReason; }
+        public void setAbortReason(String abortReason) { this.abortReason = abortReason; }
+    }
+}
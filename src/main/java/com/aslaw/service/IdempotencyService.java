@@ -0,0 +1,127 @@
+package com.aslaw.service;
+
+import com.aslaw.dto.DocumentDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small in-memory, expiring store for Idempotency-Key headers on the
+ * document creating endpoints. The first request with a key runs and its
+ * DocumentDTO is remembered; retries with the same key (per user and
+ * endpoint) get that DTO back without storing the payload again. Failed
+ * requests forget their key so they can be retried.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyService(@Value("${app.idempotency.ttl-minutes:60}") long ttlMinutes,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.maxEntries = maxEntries;
+        // Insertion ordered, the oldest keys are dropped first when full
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Run the creation once per key; without a key it simply runs.
+     * A null result (nothing created) is not remembered.
+     *
+     * @throws RequestInProgressException when a request with the same key is still running
+     */
+    public DocumentDTO execute(String scope, String idempotencyKey, DocumentCreation creation) throws IOException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return creation.create();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = scope + ":" + idempotencyKey;
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt.isBefore(Instant.now())) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry != null) {
+                if (entry.result == null) {
+                    throw new RequestInProgressException();
+                }
+                return entry.result;
+            }
+            entries.put(key, new Entry(null, Instant.now().plus(ttl)));
+        }
+
+        DocumentDTO result = null;
+        try {
+            result = creation.create();
+            return result;
+        } finally {
+            synchronized (entries) {
+                if (result != null) {
+                    entries.put(key, new Entry(result, Instant.now().plus(ttl)));
+                } else {
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop expired keys
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void removeExpired() {
+        Instant now = Instant.now();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.expiresAt.isBefore(now));
+        }
+    }
+
+    /**
+     * Creates a document; may return null when nothing was created
+     */
+    @FunctionalInterface
+    public interface DocumentCreation {
+        DocumentDTO create() throws IOException;
+    }
+
+    private static class Entry {
+        private final DocumentDTO result; // null while the first request is running
+        private final Instant expiresAt;
+
+        private Entry(DocumentDTO result, Instant expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A request with the same key has not finished yet
+     */
+    public static class RequestInProgressException extends RuntimeException {
+        public RequestInProgressException() {
+            super("A request with this " + HEADER + " is still in progress");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.aslaw.service;
+
+import com.aslaw.config.FileUploadConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Document storage on the local filesystem under {@code app.upload.dir}.
+ * Files are written and served through NIO FileChannels, so content never
+ * passes through the heap or a database connection.
+ * Keys are paths relative to the upload directory (e.g. cases/{caseId}/{uuid}.pdf).
+ */
+@Service
+public class LocalDocumentFileStore implements DocumentStorage {
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    public LocalDocumentFileStore(FileUploadConfig fileUploadConfig) {
+        this.fileUploadConfig = fileUploadConfig;
+    }
+
+    @Override
+    public String getType() {
+        return DocumentService.STORAGE_LOCAL;
+    }
+
+    /**
+     * Stream the input into a new file
+     *
+     * @return number of bytes written
+     */
+    @Override
+    public long write(String storageKey, InputStream inputStream) throws IOException {
+        Path path = resolve(storageKey);
+        Files.createDirectories(path.getParent());
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(inputStream)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            channel.force(false);
+            return position;
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Open a new file for writing
+     */
+    @Override
+    public OutputStream openOutputStream(String storageKey) throws IOException {
+        Path path = resolve(storageKey);
+        Files.createDirectories(path.getParent());
+        return new ChannelOutputStream(FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Open a byte window of the file as a stream
+     */
+    @Override
+    public InputStream openInputStream(String storageKey, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(storageKey), StandardOpenOption.READ);
+        channel.position(offset);
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    /**
+     * Copy a byte window of the file to the output with FileChannel.transferTo
+     */
+    @Override
+    public void transferTo(String storageKey, long offset, long length, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(storageKey), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = offset;
+            long end = Math.min(offset + length, channel.size());
+            while (position < end) {
+                long transferred = channel.transferTo(position, Math.min(TRANSFER_CHUNK, end - position), target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Delete the file of the given key
+     */
+    @Override
+    public void delete(String storageKey) throws IOException {
+        Files.deleteIfExists(resolve(storageKey));
+    }
+
+    @Override
+    public Path resolveLocalPath(String storageKey) {
+        return resolve(storageKey);
+    }
+
+    /**
+     * Absolute path of a key, rejecting keys that escape the upload directory
+     */
+    private Path resolve(String storageKey) {
+        Path root = Paths.get(fileUploadConfig.getUploadDir()).toAbsolutePath().normalize();
+        Path path = root.resolve(storageKey).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + storageKey);
+        }
+        return path;
+    }
+}
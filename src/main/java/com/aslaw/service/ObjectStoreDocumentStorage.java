@@ -0,0 +1,116 @@
+package com.aslaw.service;
+
+import com.aslaw.config.FileUploadConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Local stand-in for an object store (the cheap, cold tier).
+ * Objects are immutable: they are written to a temporary file and moved into
+ * place atomically, and keys are spread over two levels of prefix directories
+ * the way bucket storage lays them out. Swapping this for S3/Supabase only
+ * needs another {@link DocumentStorage} with type "object".
+ */
+@Service
+public class ObjectStoreDocumentStorage implements DocumentStorage {
+
+    public static final String TYPE = "object";
+
+    private final FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    public ObjectStoreDocumentStorage(FileUploadConfig fileUploadConfig) {
+        this.fileUploadConfig = fileUploadConfig;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public long write(String storageKey, InputStream inputStream) throws IOException {
+        Path target = resolve(storageKey);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long size = Files.copy(inputStream, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return size;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public OutputStream openOutputStream(String storageKey) throws IOException {
+        Path target = resolve(storageKey);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        return new ChannelOutputStream(FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            @Override
+            protected void afterClose() throws IOException {
+                try {
+                    // Object becomes visible only once complete
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream openInputStream(String storageKey, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(storageKey), StandardOpenOption.READ);
+        channel.position(offset);
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public void transferTo(String storageKey, long offset, long length, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(storageKey), StandardOpenOption.READ)) {
+            long position = offset;
+            long end = Math.min(offset + length, channel.size());
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, Channels.newChannel(outputStream));
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    @Override
+    public void delete(String storageKey) throws IOException {
+        Files.deleteIfExists(resolve(storageKey));
+    }
+
+    /**
+     * Object key for a content hash: ab/cd/abcd...
+     */
+    public static String keyFor(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private Path resolve(String storageKey) {
+        Path root = Paths.get(fileUploadConfig.getObjectStoreDir()).toAbsolutePath().normalize();
+        Path path = root.resolve(storageKey).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + storageKey);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,491 @@
+package com.aslaw.service;
+
+import com.aslaw.config.FileUploadConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only pack storage for small documents.
+ * Content is appended as records to large segment files instead of one file
+ * or row per document: {@code [magic][kind][key length][key][data length][data]}.
+ * Deletes append a tombstone record. The index (key to segment, offset and
+ * length) lives in memory and is rebuilt by scanning the segments at startup,
+ * so the segments are the only state. Reads go through read-only memory
+ * mappings of the segments; downloads use FileChannel.transferTo. Sealed
+ * segments whose dead share passes the threshold are compacted in the
+ * background by copying their live records to the active segment.
+ */
+@Slf4j
+@Service
+public class PackDocumentStorage implements DocumentStorage {
+
+    public static final String TYPE = "pack";
+
+    private static final int RECORD_MAGIC = 0x50414B31; // "PAK1"
+    private static final byte KIND_DATA = 1;
+    private static final byte KIND_TOMBSTONE = 2;
+    private static final int HEADER_BYTES = 4 + 1 + 2 + 8; // magic, kind, key length, data length
+    // Deflated content of incompressible data can be slightly larger than the original
+    private static final long COMPRESSION_SLACK = 64 * 1024;
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final boolean enabled;
+    private final Path root;
+    private final long segmentBytes;
+    private final long maxDocumentBytes;
+    private final double compactionThreshold;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private Segment active; // Guarded by "this", as are all appends
+
+    public PackDocumentStorage(@Value("${app.storage.pack.enabled:false}") boolean enabled,
+                               @Value("${app.storage.pack.dir:}") String dir,
+                               @Value("${app.storage.pack.segment-bytes:67108864}") long segmentBytes,
+                               @Value("${app.storage.pack.max-document-bytes:204800}") long maxDocumentBytes,
+                               @Value("${app.storage.pack.compaction-threshold:0.5}") double compactionThreshold,
+                               FileUploadConfig fileUploadConfig) throws IOException {
+        this.enabled = enabled;
+        this.root = (StringUtils.hasText(dir) ? Paths.get(dir) : Paths.get(fileUploadConfig.getUploadDir(), "packs"))
+                .toAbsolutePath().normalize();
+        // Segments are mapped as a whole, which limits them to 2GB
+        this.segmentBytes = Math.min(segmentBytes, Integer.MAX_VALUE);
+        this.maxDocumentBytes = maxDocumentBytes;
+        this.compactionThreshold = compactionThreshold;
+        // Existing segments are always indexed so packed documents stay readable when new packing is off
+        loadSegments();
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    /**
+     * Whether new documents of this size should be packed
+     */
+    public boolean accepts(long fileSize) {
+        return enabled && fileSize >= 0 && fileSize <= maxDocumentBytes;
+    }
+
+    @Override
+    public long write(String storageKey, InputStream inputStream) throws IOException {
+        try (OutputStream outputStream = openOutputStream(storageKey)) {
+            return inputStream.transferTo(outputStream);
+        }
+    }
+
+    /**
+     * Content is buffered (it is small) and appended as one record on close
+     */
+    @Override
+    public OutputStream openOutputStream(String storageKey) {
+        return new PackOutputStream(storageKey);
+    }
+
+    @Override
+    public InputStream openInputStream(String storageKey, long offset, long length) throws IOException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Location location = locate(storageKey);
+            Segment segment = segments.get(location.segmentId);
+            if (segment == null) {
+                continue; // Moved by compaction, look the key up again
+            }
+            try {
+                MappedByteBuffer mapped = segment.map(location.offset + location.length);
+                ByteBuffer record = mapped.duplicate()
+                        .limit((int) (location.offset + location.length))
+                        .position((int) location.offset)
+                        .slice();
+                return new ByteBufferInputStream(record, offset, length);
+            } catch (ClosedChannelException e) {
+                // Segment was compacted away while we were looking
+            }
+        }
+        throw new IOException("Pack record moved repeatedly while reading: " + storageKey);
+    }
+
+    /**
+     * Copy a byte window of the record to the output with FileChannel.transferTo
+     */
+    @Override
+    public void transferTo(String storageKey, long offset, long length, OutputStream outputStream) throws IOException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Location location = locate(storageKey);
+            Segment segment = segments.get(location.segmentId);
+            if (segment == null) {
+                continue;
+            }
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long start = location.offset + Math.min(offset, location.length);
+            long end = location.offset + Math.min(location.length, offset + length);
+            long position = start;
+            try {
+                while (position < end) {
+                    long transferred = segment.channel.transferTo(position, Math.min(TRANSFER_CHUNK, end - position), target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                return;
+            } catch (ClosedChannelException e) {
+                if (position > start) {
+                    // Part of the window is already written, it cannot be restarted
+                    throw e;
+                }
+            }
+        }
+        throw new IOException("Pack record moved repeatedly while reading: " + storageKey);
+    }
+
+    /**
+     * Drop the key from the index and append a tombstone; the space is reclaimed by compaction
+     */
+    @Override
+    public synchronized void delete(String storageKey) throws IOException {
+        Location location = index.remove(storageKey);
+        if (location == null) {
+            return;
+        }
+        markDead(location);
+        append(storageKey, KIND_TOMBSTONE, new byte[0], 0);
+    }
+
+    /**
+     * Rewrite sealed segments whose share of dead bytes passed the threshold
+     */
+    @Scheduled(fixedDelayString = "${app.storage.pack.compaction-interval-ms:600000}", initialDelay = 120000)
+    public void compact() {
+        List<Segment> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                if (segment != active && segment.size > 0
+                        && 1.0 - (double) segment.liveBytes.get() / segment.size >= compactionThreshold) {
+                    candidates.add(segment);
+                }
+            }
+        }
+        for (Segment segment : candidates) {
+            try {
+                compactSegment(segment);
+            } catch (IOException e) {
+                log.warn("⚠️ Could not compact pack segment {}: {}", segment.path.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copy the live records and the still needed tombstones forward, then drop the segment
+     */
+    private void compactSegment(Segment segment) throws IOException {
+        long before = segment.size;
+        Set<String> keysInSegment = new HashSet<>();
+        long position = 0;
+        while (position < segment.size) {
+            RecordHeader header = readHeader(segment.channel, position, segment.size);
+            if (header == null) {
+                throw new IOException("Corrupt record at " + position);
+            }
+            long dataOffset = position + header.headerLength();
+            if (header.kind == KIND_DATA) {
+                keysInSegment.add(header.key);
+                Location current = index.get(header.key);
+                if (current != null && current.segmentId == segment.id && current.offset == dataOffset) {
+                    byte[] data = new byte[(int) header.dataLength];
+                    readFully(segment.channel, ByteBuffer.wrap(data), dataOffset);
+                    synchronized (this) {
+                        // Skip records deleted or rewritten while the data was read
+                        Location latest = index.get(header.key);
+                        if (latest != null && latest.segmentId == segment.id && latest.offset == dataOffset) {
+                            append(header.key, KIND_DATA, data, data.length);
+                        }
+                    }
+                }
+            } else if (!keysInSegment.contains(header.key)) {
+                // The deleted record lives in another segment: keep its tombstone
+                synchronized (this) {
+                    append(header.key, KIND_TOMBSTONE, new byte[0], 0);
+                }
+            }
+            position = dataOffset + header.dataLength;
+        }
+
+        synchronized (this) {
+            segments.remove(segment.id);
+            segment.channel.close();
+        }
+        Files.deleteIfExists(segment.path);
+        log.info("🗜️ Compacted pack segment {} ({} bytes reclaimed)", segment.path.getFileName(),
+                before - segment.liveBytes.get());
+    }
+
+    /**
+     * Append a record to the active segment (caller holds the lock), rolling over to a new segment when full
+     */
+    private void append(String storageKey, byte kind, byte[] data, int length) throws IOException {
+        byte[] key = storageKey.getBytes(StandardCharsets.UTF_8);
+        long recordBytes = HEADER_BYTES + key.length + (long) length;
+        if (active == null || (active.size > 0 && active.size + recordBytes > segmentBytes)) {
+            active = createSegment();
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + key.length);
+        header.putInt(RECORD_MAGIC).put(kind).putShort((short) key.length).put(key).putLong(length).flip();
+        long position = active.size;
+        writeFully(active.channel, header, position);
+        writeFully(active.channel, ByteBuffer.wrap(data, 0, length), position + header.capacity());
+        active.channel.force(false);
+        active.size = position + recordBytes;
+
+        if (kind == KIND_DATA) {
+            Location previous = index.put(storageKey, new Location(active.id, position + header.capacity(), length));
+            if (previous != null) {
+                markDead(previous);
+            }
+            active.liveBytes.addAndGet(length);
+        }
+    }
+
+    private void markDead(Location location) {
+        Segment segment = segments.get(location.segmentId);
+        if (segment != null) {
+            segment.liveBytes.addAndGet(-location.length);
+        }
+    }
+
+    private Location locate(String storageKey) throws FileNotFoundException {
+        Location location = index.get(storageKey);
+        if (location == null) {
+            throw new FileNotFoundException("Pack record not found: " + storageKey);
+        }
+        return location;
+    }
+
+    private Segment createSegment() throws IOException {
+        Files.createDirectories(root);
+        int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path path = root.resolve(String.format("segment-%08d.pack", id));
+        Segment segment = new Segment(id, path, FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Rebuild the index from the segments, oldest first; a torn record at a segment end is cut off
+     */
+    private void loadSegments() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(root)) {
+            paths = files.filter(path -> path.getFileName().toString().matches("segment-\\d{8}\\.pack"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path path : paths) {
+            int id = Integer.parseInt(path.getFileName().toString().substring(8, 16));
+            Segment segment = new Segment(id, path, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            segments.put(id, segment);
+
+            long fileSize = segment.channel.size();
+            long position = 0;
+            RecordHeader header;
+            while (position < fileSize && (header = readHeader(segment.channel, position, fileSize)) != null) {
+                long dataOffset = position + header.headerLength();
+                if (header.kind == KIND_DATA) {
+                    Location previous = index.put(header.key, new Location(id, dataOffset, header.dataLength));
+                    if (previous != null) {
+                        markDead(previous);
+                    }
+                    segment.liveBytes.addAndGet(header.dataLength);
+                } else {
+                    Location removed = index.remove(header.key);
+                    if (removed != null) {
+                        markDead(removed);
+                    }
+                }
+                position = dataOffset + header.dataLength;
+            }
+            if (position < fileSize) {
+                log.warn("⚠️ Truncating torn record at {} in pack segment {}", position, path.getFileName());
+                segment.channel.truncate(position);
+            }
+            segment.size = position;
+        }
+        if (!segments.isEmpty()) {
+            active = segments.lastEntry().getValue();
+        }
+        log.info("📦 Pack storage: {} documents in {} segments", index.size(), segments.size());
+    }
+
+    /**
+     * Header of the record at the position, or null when it is missing, torn or invalid
+     */
+    private RecordHeader readHeader(FileChannel channel, long position, long limit) throws IOException {
+        if (position + HEADER_BYTES > limit) {
+            return null;
+        }
+        ByteBuffer fixed = ByteBuffer.allocate(7);
+        readFully(channel, fixed, position);
+        fixed.flip();
+        int magic = fixed.getInt();
+        byte kind = fixed.get();
+        int keyLength = fixed.getShort() & 0xFFFF;
+        if (magic != RECORD_MAGIC || (kind != KIND_DATA && kind != KIND_TOMBSTONE)
+                || position + HEADER_BYTES + keyLength > limit) {
+            return null;
+        }
+        ByteBuffer rest = ByteBuffer.allocate(keyLength + 8);
+        readFully(channel, rest, position + 7);
+        rest.flip();
+        byte[] key = new byte[keyLength];
+        rest.get(key);
+        long dataLength = rest.getLong();
+        RecordHeader header = new RecordHeader(kind, new String(key, StandardCharsets.UTF_8), keyLength, dataLength);
+        if (dataLength < 0 || position + header.headerLength() + dataLength > limit) {
+            return null;
+        }
+        return header;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of pack segment");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Buffers a small document and appends it as one record when closed
+     */
+    private class PackOutputStream extends ByteArrayOutputStream {
+        private final String storageKey;
+        private boolean closed = false;
+
+        private PackOutputStream(String storageKey) {
+            super(8192);
+            this.storageKey = storageKey;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (count + (long) len > maxDocumentBytes + COMPRESSION_SLACK) {
+                throw new IllegalStateException("Document too large for pack storage: " + storageKey);
+            }
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (PackDocumentStorage.this) {
+                append(storageKey, KIND_DATA, buf, count);
+            }
+        }
+    }
+
+    private static class Segment {
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicLong liveBytes = new AtomicLong();
+        private volatile long size;
+        private MappedByteBuffer mapped;
+
+        private Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        /**
+         * Read-only mapping covering at least the given end; the active segment is remapped as it grows
+         */
+        private synchronized MappedByteBuffer map(long end) throws IOException {
+            if (mapped == null || mapped.capacity() < end) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return mapped;
+        }
+    }
+
+    private static class Location {
+        private final int segmentId;
+        private final long offset;
+        private final long length;
+
+        private Location(int segmentId, long offset, long length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static class RecordHeader {
+        private final byte kind;
+        private final String key;
+        private final int keyLength;
+        private final long dataLength;
+
+        private RecordHeader(byte kind, String key, int keyLength, long dataLength) {
+            this.kind = kind;
+            this.key = key;
+            this.keyLength = keyLength;
+            this.dataLength = dataLength;
+        }
+
+        private long headerLength() {
+            return HEADER_BYTES + keyLength;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.aslaw.service;
+
+import com.aslaw.config.FileUploadConfig;
+import com.aslaw.dto.DocumentDTO;
+import com.aslaw.entity.Document;
+import com.aslaw.entity.UploadSession;
+import com.aslaw.repository.CaseRepository;
+import com.aslaw.repository.UploadSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Chunked, resumable uploads.
+ * A session is initialised with the file metadata and total size, chunks are
+ * then written straight from the request body into a staging file at their
+ * offset, and the acknowledged offset is advanced with a conditional update.
+ * On commit the staging file is streamed through the normal document
+ * storage path. Memory use per request is bounded by the copy buffer, not the chunk.
+ */
+@Slf4j
+@Service
+public class UploadSessionService {
+
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final UploadSessionRepository sessionRepository;
+    private final CaseRepository caseRepository;
+    private final DocumentService documentService;
+    private final FileUploadConfig fileUploadConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.upload.session.max-chunk-size:8388608}")
+    private long maxChunkSize;
+
+    @Value("${app.upload.session.max-file-size:2147483648}")
+    private long maxFileSize;
+
+    // Limit of the base64 provider, which keeps the whole document as text in the database
+    @Value("${app.storage.max-file-size:50MB}")
+    private DataSize base64MaxFileSize;
+
+    @Value("${app.upload.session.expiry-hours:24}")
+    private int expiryHours;
+
+    @Autowired
+    public UploadSessionService(UploadSessionRepository sessionRepository, CaseRepository caseRepository,
+                                DocumentService documentService, FileUploadConfig fileUploadConfig,
+                                PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.caseRepository = caseRepository;
+        this.documentService = documentService;
+        this.fileUploadConfig = fileUploadConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start a new upload session with an empty staging file
+     */
+    public UploadSession createSession(String title, String description, Document.DocumentType type, Long caseId,
+                                       String fileName, String contentType, Long totalSize, String username) throws IOException {
+        if (!StringUtils.hasText(title) || type == null || caseId == null || !StringUtils.hasText(fileName)) {
+            throw new IllegalArgumentException("Title, type, legal case and file name are required");
+        }
+        if (totalSize == null || totalSize <= 0) {
+            throw new IllegalArgumentException("Total size must be greater than zero");
+        }
+        if (totalSize > maxFileSize) {
+            throw new IllegalArgumentException("File exceeds the maximum size of " + maxFileSize + " bytes");
+        }
+        if (DocumentService.STORAGE_BASE64.equals(documentService.getStorageType())
+                && totalSize > base64MaxFileSize.toBytes()) {
+            throw new IllegalArgumentException("File exceeds the maximum size of " + base64MaxFileSize.toBytes()
+                    + " bytes for base64 storage");
+        }
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found with id: " + caseId);
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setTitle(title);
+        session.setDescription(description);
+        session.setType(type);
+        session.setLegalCaseId(caseId);
+        session.setFileName(StringUtils.cleanPath(fileName));
+        session.setContentType(StringUtils.hasText(contentType) ? contentType : "application/octet-stream");
+        session.setTotalSize(totalSize);
+        session.setReceivedBytes(0L);
+        session.setCreatedBy(username);
+        session.setExpiresAt(LocalDateTime.now().plusHours(expiryHours));
+
+        Path stagingFile = stagingFile(session.getId());
+        Files.createDirectories(stagingFile.getParent());
+        Files.createFile(stagingFile);
+        try {
+            return sessionRepository.save(session);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(stagingFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Find a live session owned by the given user
+     */
+    public UploadSession getSession(String sessionId, String username) {
+        UploadSession session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found: " + sessionId));
+        if (!session.getCreatedBy().equals(username)) {
+            throw new SecurityException("Upload session belongs to another user");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Upload session expired: " + sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Write a chunk at the given offset.
+     * Bytes that arrived before a dropped connection are kept and acknowledged,
+     * so the client can resume from the returned (or next reported) offset.
+     *
+     * @return the new acknowledged offset
+     * @throws OffsetMismatchException when the offset is not the acknowledged offset
+     */
+    public long appendChunk(String sessionId, long offset, long contentLength, InputStream body, String username) throws IOException {
+        UploadSession session = getSession(sessionId, username);
+        if (offset != session.getReceivedBytes()) {
+            throw new OffsetMismatchException(session.getReceivedBytes());
+        }
+        long remaining = session.getTotalSize() - offset;
+        if (contentLength > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk exceeds the maximum size of " + maxChunkSize + " bytes");
+        }
+        if (contentLength > remaining) {
+            throw new IllegalArgumentException("Chunk exceeds the declared total size");
+        }
+        long limit = contentLength >= 0 ? contentLength : Math.min(maxChunkSize, remaining);
+
+        long written = 0;
+        IOException failure = null;
+        try (FileChannel channel = FileChannel.open(stagingFile(sessionId), StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(body)) {
+            long transferred;
+            while (written < limit
+                    && (transferred = channel.transferFrom(source, offset + written, Math.min(TRANSFER_CHUNK, limit - written))) > 0) {
+                written += transferred;
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Client went away mid-chunk; acknowledge what made it to disk
+            failure = e;
+        }
+
+        long newOffset = offset + written;
+        if (written > 0) {
+            Integer updated = transactionTemplate.execute(status -> sessionRepository.advanceReceivedBytes(
+                    sessionId, offset, newOffset, LocalDateTime.now().plusHours(expiryHours)));
+            if (updated == null || updated == 0) {
+                // A concurrent request for the same offset won
+                throw new OffsetMismatchException(currentOffset(sessionId));
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return newOffset;
+    }
+
+    /**
+     * Assemble the staging file into a document and close the session
+     */
+    public DocumentDTO commit(String sessionId, String username) throws IOException {
+        UploadSession session = getSession(sessionId, username);
+        if (!session.getReceivedBytes().equals(session.getTotalSize())) {
+            throw new IllegalArgumentException("Upload incomplete: " + session.getReceivedBytes()
+                    + " of " + session.getTotalSize() + " bytes received");
+        }
+
+        // Claim the session in a short transaction; a concurrent commit finds it gone
+        Integer claimed = transactionTemplate.execute(status ->
+                sessionRepository.deleteCompleted(sessionId));
+        if (claimed == null || claimed == 0) {
+            throw new RuntimeException("Upload session not found: " + sessionId);
+        }
+
+        Path stagingFile = stagingFile(sessionId);
+        DocumentDTO document;
+        try (InputStream inputStream = new BoundedInputStream(Files.newInputStream(stagingFile), session.getTotalSize())) {
+            // Content is stored without holding a connection, metadata in its own short transaction
+            document = documentService.createDocumentFromStream(session.getTitle(), session.getDescription(),
+                    session.getType(), session.getLegalCaseId(), session.getFileName(), session.getContentType(),
+                    session.getTotalSize(), inputStream);
+        } catch (IOException | RuntimeException e) {
+            // Put the session back so the commit can be retried
+            sessionRepository.save(session);
+            throw e;
+        }
+
+        Files.deleteIfExists(stagingFile);
+        return document;
+    }
+
+    /**
+     * Abort a session and drop its staging file
+     */
+    public void cancel(String sessionId, String username) throws IOException {
+        UploadSession session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found: " + sessionId));
+        if (!session.getCreatedBy().equals(username)) {
+            throw new SecurityException("Upload session belongs to another user");
+        }
+        sessionRepository.delete(session);
+        Files.deleteIfExists(stagingFile(sessionId));
+    }
+
+    /**
+     * Maximum accepted chunk size in bytes
+     */
+    public long getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    /**
+     * Remove expired sessions and their staging files
+     */
+    @Scheduled(fixedDelayString = "${app.upload.session.cleanup-interval-ms:900000}", initialDelay = 120000)
+    public void cleanupExpiredSessions() {
+        List<UploadSession> expired = sessionRepository.findExpired(LocalDateTime.now(), PageRequest.of(0, 100));
+        for (UploadSession session : expired) {
+            try {
+                sessionRepository.delete(session);
+                Files.deleteIfExists(stagingFile(session.getId()));
+            } catch (Exception e) {
+                log.warn("⚠️ Could not remove expired upload session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("🧹 Removed {} expired upload sessions", expired.size());
+        }
+    }
+
+    private long currentOffset(String sessionId) {
+        return sessionRepository.findById(sessionId)
+                .map(UploadSession::getReceivedBytes)
+                .orElse(0L);
+    }
+
+    private Path stagingFile(String sessionId) {
+        Path root = Paths.get(fileUploadConfig.getUploadDir(), ".sessions").toAbsolutePath().normalize();
+        Path path = root.resolve(sessionId + ".part").normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid upload session id: " + sessionId);
+        }
+        return path;
+    }
+
+    /**
+     * Chunk offset does not match the acknowledged offset of the session
+     */
+    public static class OffsetMismatchException extends RuntimeException {
+        private final long currentOffset;
+
+        public OffsetMismatchException(long currentOffset) {
+            super("Offset mismatch, expected " + currentOffset);
+            this.currentOffset = currentOffset;
+        }
+
+        public long getCurrentOffset() { return currentOffset; }
+    }
+}
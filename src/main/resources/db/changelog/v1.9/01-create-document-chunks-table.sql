@@ -0,0 +1,22 @@
+--liquibase formatted sql
+
+--changeset aslaw:create-document-chunks-table-v1.9.1
+-- Chunked binary storage for document content (replaces base64 TEXT for new uploads)
+
+ALTER TABLE documents 
+ADD COLUMN storage_key VARCHAR(100);
+
+CREATE TABLE document_chunks (
+    id BIGSERIAL PRIMARY KEY,
+    storage_key VARCHAR(100) NOT NULL,
+    chunk_index INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    CONSTRAINT uk_document_chunks_key_index UNIQUE (storage_key, chunk_index)
+);
+
+COMMENT ON TABLE document_chunks IS 'Fixed-size binary chunks of document content';
+COMMENT ON COLUMN documents.storage_key IS 'Key of the document content in the selected storage';
+COMMENT ON COLUMN documents.storage_type IS 'Storage provider: base64, database';
+
+--rollback DROP TABLE document_chunks;
+--rollback ALTER TABLE documents DROP COLUMN storage_key;
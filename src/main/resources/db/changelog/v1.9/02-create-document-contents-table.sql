@@ -0,0 +1,21 @@
+--liquibase formatted sql
+
+--changeset aslaw:create-document-contents-table-v1.9.2 splitStatements:false
+-- Move base64 content out of the documents row so listing queries never read it
+
+CREATE TABLE document_contents (
+    document_id BIGINT PRIMARY KEY,
+    base64_content TEXT,
+    CONSTRAINT fk_document_contents_document FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
+);
+
+INSERT INTO document_contents (document_id, base64_content)
+SELECT id, base64_content FROM documents WHERE base64_content IS NOT NULL;
+
+ALTER TABLE documents DROP COLUMN base64_content;
+
+COMMENT ON TABLE document_contents IS 'Base64 encoded content of documents stored with the base64 provider';
+
+--rollback ALTER TABLE documents ADD COLUMN base64_content TEXT;
+--rollback UPDATE documents d SET base64_content = c.base64_content FROM document_contents c WHERE c.document_id = d.id;
+--rollback DROP TABLE document_contents;
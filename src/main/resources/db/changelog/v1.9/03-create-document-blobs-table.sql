@@ -0,0 +1,25 @@
+--liquibase formatted sql
+
+--changeset aslaw:create-document-blobs-table-v1.9.3
+-- Content-addressed blobs: identical files are stored once and reference counted
+
+CREATE TABLE document_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    storage_type VARCHAR(50) NOT NULL,
+    storage_key VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    reference_count INTEGER NOT NULL DEFAULT 0,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE documents 
+ADD COLUMN content_hash VARCHAR(64);
+
+CREATE INDEX idx_documents_content_hash ON documents(content_hash);
+
+COMMENT ON TABLE document_blobs IS 'Deduplicated document content keyed by SHA-256';
+COMMENT ON COLUMN documents.content_hash IS 'SHA-256 of the document content (document_blobs.hash)';
+
+--rollback DROP INDEX idx_documents_content_hash;
+--rollback ALTER TABLE documents DROP COLUMN content_hash;
+--rollback DROP TABLE document_blobs;
@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset aslaw:add-document-compression-v1.9.4
+-- Transparent compression: codec plus original and stored sizes per blob and document
+
+ALTER TABLE document_blobs 
+ADD COLUMN codec VARCHAR(20),
+ADD COLUMN stored_bytes BIGINT;
+
+UPDATE document_blobs SET stored_bytes = size_bytes WHERE stored_bytes IS NULL;
+
+ALTER TABLE documents 
+ADD COLUMN compression_codec VARCHAR(20),
+ADD COLUMN stored_size BIGINT;
+
+UPDATE documents SET stored_size = file_size WHERE storage_key IS NOT NULL AND stored_size IS NULL;
+
+COMMENT ON COLUMN document_blobs.codec IS 'Compression codec (deflate) or NULL when stored uncompressed';
+COMMENT ON COLUMN document_blobs.stored_bytes IS 'Bytes held by the storage backend';
+COMMENT ON COLUMN documents.compression_codec IS 'Compression codec of the stored content';
+COMMENT ON COLUMN documents.stored_size IS 'Stored size in bytes (file_size is the original size)';
+
+--rollback ALTER TABLE documents DROP COLUMN stored_size, DROP COLUMN compression_codec;
+--rollback ALTER TABLE document_blobs DROP COLUMN stored_bytes, DROP COLUMN codec;
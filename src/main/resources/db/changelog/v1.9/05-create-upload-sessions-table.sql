@@ -0,0 +1,27 @@
+--liquibase formatted sql
+
+--changeset aslaw:create-upload-sessions-table-v1.9.5
+-- Resumable upload sessions: chunks are staged on disk, the document is created on commit
+
+CREATE TABLE upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    type VARCHAR(50) NOT NULL,
+    legal_case_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    total_size BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    created_by VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_date TIMESTAMP
+);
+
+CREATE INDEX idx_upload_sessions_expires_at ON upload_sessions(expires_at);
+
+COMMENT ON TABLE upload_sessions IS 'Resumable uploads in progress';
+COMMENT ON COLUMN upload_sessions.received_bytes IS 'Last acknowledged offset';
+
+--rollback DROP TABLE upload_sessions;
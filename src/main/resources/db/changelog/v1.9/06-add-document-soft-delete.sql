@@ -0,0 +1,16 @@
+--liquibase formatted sql
+
+--changeset aslaw:add-document-soft-delete-v1.9.6
+-- Soft delete: documents are hidden at once, storage is reclaimed by a background purger
+
+ALTER TABLE documents 
+ADD COLUMN deleted BOOLEAN NOT NULL DEFAULT FALSE,
+ADD COLUMN deleted_date TIMESTAMP;
+
+CREATE INDEX idx_documents_deleted ON documents(deleted_date) WHERE deleted = TRUE;
+
+COMMENT ON COLUMN documents.deleted IS 'Soft deleted, waiting for the purger';
+COMMENT ON COLUMN documents.deleted_date IS 'When the document was deleted';
+
+--rollback DROP INDEX idx_documents_deleted;
+--rollback ALTER TABLE documents DROP COLUMN deleted_date, DROP COLUMN deleted;
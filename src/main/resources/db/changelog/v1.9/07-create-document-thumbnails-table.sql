@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset aslaw:create-document-thumbnails-table-v1.9.7
+-- Downscaled previews of image documents, generated in the background after upload
+
+CREATE TABLE document_thumbnails (
+    document_id BIGINT PRIMARY KEY REFERENCES documents(id) ON DELETE CASCADE,
+    content_type VARCHAR(50) NOT NULL,
+    width INTEGER NOT NULL,
+    height INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE document_thumbnails IS 'Thumbnails of image documents, removed with their document';
+
+--rollback DROP TABLE document_thumbnails;
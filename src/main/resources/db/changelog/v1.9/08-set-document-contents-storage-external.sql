@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset aslaw:set-document-contents-storage-external-v1.9.8
+-- Keep base64 content out of line and uncompressed, so SUBSTRING reads of a download window
+-- fetch only the TOAST chunks they need instead of decompressing the whole value
+
+ALTER TABLE document_contents ALTER COLUMN base64_content SET STORAGE EXTERNAL;
+
+-- Only values written from now on follow the new setting. Existing values are rewritten in
+-- throttled batches by the background job (POST /actuator/documentmigration with job=rewrite)
+
+--rollback ALTER TABLE document_contents ALTER COLUMN base64_content SET STORAGE EXTENDED;
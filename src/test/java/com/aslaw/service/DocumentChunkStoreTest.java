@@ -0,0 +1,85 @@
+package com.aslaw.service;
+
+import com.aslaw.repository.DocumentChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static com.aslaw.service.DocumentChunkStore.CHUNK_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentChunkStoreTest {
+
+    private final byte[] content = new byte[3 * CHUNK_SIZE + 1000];
+    private DocumentChunkRepository chunkRepository;
+    private DocumentChunkStore store;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31 + i / 7);
+        }
+        chunkRepository = mock(DocumentChunkRepository.class);
+        when(chunkRepository.findChunkData(eq("key"), anyInt())).thenAnswer(invocation -> {
+            int start = invocation.<Integer>getArgument(1) * CHUNK_SIZE;
+            return start >= content.length ? null
+                    : Arrays.copyOfRange(content, start, Math.min(content.length, start + CHUNK_SIZE));
+        });
+        store = new DocumentChunkStore(chunkRepository);
+    }
+
+    @Test
+    void readsWholeContent() throws IOException {
+        assertThat(readAll(store.openInputStream("key"))).isEqualTo(content);
+    }
+
+    @Test
+    void readsWindowsAtOffsetsNotAlignedToChunks() throws IOException {
+        for (long offset : new long[] {1, 1000, CHUNK_SIZE - 1, CHUNK_SIZE + 1, 2L * CHUNK_SIZE + 12345}) {
+            assertThat(readAll(store.openInputStream("key", offset, 10))).as("offset %d", offset)
+                    .isEqualTo(Arrays.copyOfRange(content, (int) offset, (int) offset + 10));
+        }
+    }
+
+    @Test
+    void readsAcrossChunkBoundariesWithoutLoadingEarlierChunks() throws IOException {
+        long offset = CHUNK_SIZE + 17;
+        int length = CHUNK_SIZE + 100;
+        assertThat(readAll(store.openInputStream("key", offset, length)))
+                .isEqualTo(Arrays.copyOfRange(content, (int) offset, (int) offset + length));
+        verify(chunkRepository, never()).findChunkData("key", 0);
+        verify(chunkRepository, never()).findChunkData("key", 3);
+    }
+
+    @Test
+    void singleByteReadsMatchBulkReads() throws IOException {
+        try (InputStream inputStream = store.openInputStream("key", CHUNK_SIZE - 2, 4)) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(inputStream.read()).isEqualTo(content[CHUNK_SIZE - 2 + i] & 0xFF);
+            }
+            assertThat(inputStream.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void stopsAtLastChunk() throws IOException {
+        long offset = 3L * CHUNK_SIZE + 990;
+        assertThat(readAll(store.openInputStream("key", offset, 100)))
+                .isEqualTo(Arrays.copyOfRange(content, (int) offset, content.length));
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        try (inputStream) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.aslaw.service;
+
+import com.aslaw.entity.Document;
+import com.aslaw.repository.DocumentContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentContentReaderTest {
+
+    // A 64K character window decodes to 48K bytes
+    private static final int WINDOW_BYTES = 48 * 1024;
+
+    private final byte[] content = new byte[4 * WINDOW_BYTES + 1000];
+    private DocumentContentRepository contentRepository;
+    private DocumentContentReader reader;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31 + i / 7);
+        }
+        String base64 = Base64.getEncoder().encodeToString(content);
+        contentRepository = mock(DocumentContentRepository.class);
+        // Same semantics as substring(content from start for length): 1-based, empty past the end
+        when(contentRepository.findBase64Window(eq(1L), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int start = invocation.<Integer>getArgument(1) - 1;
+            int length = invocation.getArgument(2);
+            return start >= base64.length() ? "" : base64.substring(start, Math.min(base64.length(), start + length));
+        });
+        reader = new DocumentContentReader(new DocumentStorageRegistry(List.of()), contentRepository);
+
+        document = new Document();
+        document.setId(1L);
+        document.setFileName("legacy.pdf");
+        document.setFileSize((long) content.length);
+    }
+
+    @Test
+    void readsWholeContent() throws IOException {
+        assertThat(readAll(reader.open(document))).isEqualTo(content);
+    }
+
+    @Test
+    void readsWindowsAtOffsetsNotAlignedToBase64Groups() throws IOException {
+        for (long offset : new long[] {1, 2, 4, 5, 1000, WINDOW_BYTES - 1, WINDOW_BYTES + 1, 3L * WINDOW_BYTES + 2}) {
+            assertThat(readAll(reader.open(document, offset, 10))).as("offset %d", offset)
+                    .isEqualTo(Arrays.copyOfRange(content, (int) offset, (int) offset + 10));
+        }
+    }
+
+    @Test
+    void readsAcrossWindowBoundaries() throws IOException {
+        long offset = WINDOW_BYTES - 5;
+        int length = 2 * WINDOW_BYTES + 7;
+        assertThat(readAll(reader.open(document, offset, length)))
+                .isEqualTo(Arrays.copyOfRange(content, (int) offset, (int) offset + length));
+    }
+
+    @Test
+    void singleByteReadsMatchBulkReads() throws IOException {
+        try (InputStream inputStream = reader.open(document, WINDOW_BYTES - 2, 4)) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(inputStream.read()).isEqualTo(content[WINDOW_BYTES - 2 + i] & 0xFF);
+            }
+            assertThat(inputStream.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void stopsAtEndOfContent() throws IOException {
+        long offset = content.length - 3;
+        assertThat(readAll(reader.open(document, offset, 100)))
+                .isEqualTo(Arrays.copyOfRange(content, (int) offset, content.length));
+    }
+
+    @Test
+    void failsWhenContentIsMissing() {
+        document.setId(2L);
+        when(contentRepository.findBase64Window(eq(2L), anyInt(), anyInt())).thenReturn(null);
+        assertThatThrownBy(() -> readAll(reader.open(document))).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        try (inputStream) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
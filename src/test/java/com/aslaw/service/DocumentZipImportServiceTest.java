@@ -0,0 +1,155 @@
+package com.aslaw.service;
+
+import com.aslaw.dto.DocumentDTO;
+import com.aslaw.entity.DocumentBlob;
+import com.aslaw.repository.CaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentZipImportServiceTest {
+
+    private DocumentService documentService;
+    private DocumentBlobStore blobStore;
+    private DocumentZipImportService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        documentService = mock(DocumentService.class);
+        blobStore = mock(DocumentBlobStore.class);
+        CaseRepository caseRepository = mock(CaseRepository.class);
+        when(caseRepository.existsById(1L)).thenReturn(true);
+        when(documentService.getStorageType(anyLong())).thenReturn("database");
+        when(documentService.newStorageKey(anyString(), any(), anyString())).thenReturn("key");
+        // Consume the entry like a real store, so the limits are checked while reading
+        when(blobStore.store(anyString(), anyString(), any(InputStream.class), anyBoolean())).thenAnswer(invocation -> {
+            invocation.<InputStream>getArgument(2).transferTo(OutputStream.nullOutputStream());
+            return new DocumentBlob();
+        });
+        when(documentService.createDocumentForBlob(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new DocumentDTO());
+
+        service = new DocumentZipImportService(documentService, blobStore, mock(DocumentCompression.class), caseRepository);
+        ReflectionTestUtils.setField(service, "maxEntries", 500);
+        ReflectionTestUtils.setField(service, "maxEntrySize", 100L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "maxTotalSize", 1024L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "maxCompressionRatio", 100);
+        ReflectionTestUtils.setField(service, "base64MaxFileSize", DataSize.ofMegabytes(50));
+    }
+
+    @Test
+    void importsEveryFileEntry() throws IOException {
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("a.pdf", random(1000), "folder/", new byte[0], "b.pdf", random(2000), ".DS_Store", random(10)), 1L);
+
+        assertThat(result.getAbortReason()).isNull();
+        assertThat(result.getResults()).hasSize(2);
+        assertThat(result.getImported()).isEqualTo(2);
+    }
+
+    @Test
+    void abortsWhenEntryCountExceedsLimit() throws IOException {
+        ReflectionTestUtils.setField(service, "maxEntries", 2);
+
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("a.pdf", random(10), "b.pdf", random(10), "c.pdf", random(10)), 1L);
+
+        assertThat(result.getAbortReason()).contains("more than 2 entries");
+        assertThat(result.getImported()).isEqualTo(2);
+    }
+
+    @Test
+    void abortsWhenEntryExceedsMaximumSize() throws IOException {
+        ReflectionTestUtils.setField(service, "maxEntrySize", 1000L);
+
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("a.pdf", random(500), "b.pdf", random(1001)), 1L);
+
+        assertThat(result.getAbortReason()).contains("maximum size of 1000 bytes");
+        assertThat(result.getResults()).hasSize(2);
+        assertThat(result.getResults().get(1).isSuccess()).isFalse();
+    }
+
+    @Test
+    void abortsWhenTotalSizeExceedsLimit() throws IOException {
+        ReflectionTestUtils.setField(service, "maxTotalSize", 250_000L);
+
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("a.pdf", random(100_000), "b.pdf", random(100_000), "c.pdf", random(100_000)), 1L);
+
+        assertThat(result.getAbortReason()).contains("Archive content exceeds the maximum size of 250000 bytes");
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getResults().get(2).getError()).isNotNull();
+    }
+
+    @Test
+    void abortsWhenCompressionRatioExceedsLimit() throws IOException {
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("bomb.pdf", new byte[20 * 1024 * 1024]), 1L);
+
+        assertThat(result.getAbortReason()).contains("compression ratio exceeds 100");
+        assertThat(result.getImported()).isZero();
+    }
+
+    @Test
+    void acceptsSmallHighlyCompressibleFiles() throws IOException {
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("empty-form.pdf", new byte[512 * 1024]), 1L);
+
+        assertThat(result.getAbortReason()).isNull();
+        assertThat(result.getImported()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsOversizedEntryForBase64StorageWithoutAborting() throws IOException {
+        ReflectionTestUtils.setField(service, "base64MaxFileSize", DataSize.ofBytes(1000));
+        when(documentService.getStorageType(anyLong())).thenReturn(DocumentService.STORAGE_BASE64);
+        when(documentService.createDocumentFromStream(any(), any(), any(), eq(1L), any(), any(), anyLong(), any()))
+                .thenReturn(new DocumentDTO());
+
+        DocumentZipImportService.ZipImportResult result = service.importArchive(
+                zip("large.pdf", random(1001), "small.pdf", random(1000)), 1L);
+
+        assertThat(result.getAbortReason()).isNull();
+        assertThat(result.getResults().get(0).getError()).contains("base64 storage");
+        assertThat(result.getResults().get(1).isSuccess()).isTrue();
+    }
+
+    private static InputStream zip(Object... namesAndContents) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) namesAndContents[i]));
+                zip.write((byte[]) namesAndContents[i + 1]);
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    private static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+}
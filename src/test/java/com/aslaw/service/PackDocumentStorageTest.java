@@ -0,0 +1,124 @@
+package com.aslaw.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackDocumentStorageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversFromTornRecordAtSegmentEnd() throws IOException {
+        PackDocumentStorage storage = newStorage(1024 * 1024, 0.5);
+        storage.write("a", stream(content(100, 1)));
+        storage.write("b", stream(content(200, 2)));
+        Path segment = dir.resolve("segment-00000001.pack");
+        long validSize = Files.size(segment);
+
+        // A crash in the middle of an append leaves a partial header and data behind
+        Files.write(segment, new byte[] {0x50, 0x41, 0x4B, 0x31, 1, 0, 1, 'c', 0, 0}, StandardOpenOption.APPEND);
+
+        PackDocumentStorage reopened = newStorage(1024 * 1024, 0.5);
+        assertThat(Files.size(segment)).isEqualTo(validSize);
+        assertThat(read(reopened, "a")).isEqualTo(content(100, 1));
+        assertThat(read(reopened, "b")).isEqualTo(content(200, 2));
+
+        // Appends continue right after the last complete record
+        reopened.write("c", stream(content(50, 3)));
+        assertThat(read(newStorage(1024 * 1024, 0.5), "c")).isEqualTo(content(50, 3));
+    }
+
+    @Test
+    void recoversFromRecordWithMissingData() throws IOException {
+        PackDocumentStorage storage = newStorage(1024 * 1024, 0.5);
+        storage.write("a", stream(content(100, 1)));
+        storage.write("b", stream(content(300, 2)));
+        Path segment = dir.resolve("segment-00000001.pack");
+        long sizeAfterA = 15 + 1 + 100;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(sizeAfterA + 15 + 1 + 120);
+        }
+
+        PackDocumentStorage reopened = newStorage(1024 * 1024, 0.5);
+        assertThat(Files.size(segment)).isEqualTo(sizeAfterA);
+        assertThat(read(reopened, "a")).isEqualTo(content(100, 1));
+        assertThatThrownBy(() -> reopened.openInputStream("b", 0, 300)).isInstanceOf(FileNotFoundException.class);
+    }
+
+    @Test
+    void compactionKeepsTombstonesOfRecordsInOtherSegments() throws IOException {
+        // Each 100 byte record takes 116 bytes, so two fit into a 300 byte segment
+        PackDocumentStorage storage = newStorage(300, 0.9);
+        storage.write("a", stream(content(100, 1))); // segment 1
+        storage.write("x", stream(content(100, 2))); // segment 1
+        storage.write("b", stream(content(100, 3))); // segment 2
+        storage.delete("a");                 // tombstone in segment 2, data in segment 1
+        storage.delete("b");                 // tombstone next to its data in segment 2
+        storage.write("c", stream(content(200, 4))); // segment 3 becomes the active one
+
+        storage.compact();
+
+        assertThat(dir.resolve("segment-00000002.pack")).doesNotExist();
+        assertThat(dir.resolve("segment-00000001.pack")).exists();
+
+        PackDocumentStorage reopened = newStorage(300, 0.9);
+        assertThatThrownBy(() -> reopened.openInputStream("a", 0, 100)).isInstanceOf(FileNotFoundException.class);
+        assertThatThrownBy(() -> reopened.openInputStream("b", 0, 100)).isInstanceOf(FileNotFoundException.class);
+        assertThat(read(reopened, "x")).isEqualTo(content(100, 2));
+        assertThat(read(reopened, "c")).isEqualTo(content(200, 4));
+    }
+
+    @Test
+    void compactionMovesLiveRecords() throws IOException {
+        PackDocumentStorage storage = newStorage(300, 0.5);
+        storage.write("a", stream(content(100, 1))); // segment 1
+        storage.write("b", stream(content(100, 2))); // segment 1
+        storage.write("c", stream(content(100, 3))); // segment 2
+        storage.delete("a");
+        storage.write("d", stream(content(200, 4))); // segment 3
+
+        storage.compact();
+
+        assertThat(dir.resolve("segment-00000001.pack")).doesNotExist();
+        assertThat(read(storage, "b")).isEqualTo(content(100, 2));
+        PackDocumentStorage reopened = newStorage(300, 0.5);
+        assertThat(read(reopened, "b")).isEqualTo(content(100, 2));
+        assertThat(read(reopened, "c")).isEqualTo(content(100, 3));
+        assertThatThrownBy(() -> reopened.openInputStream("a", 0, 100)).isInstanceOf(FileNotFoundException.class);
+    }
+
+    private PackDocumentStorage newStorage(long segmentBytes, double compactionThreshold) throws IOException {
+        return new PackDocumentStorage(true, dir.toString(), segmentBytes, 1024, compactionThreshold, null);
+    }
+
+    private static byte[] read(PackDocumentStorage storage, String key) throws IOException {
+        try (InputStream inputStream = storage.openInputStream(key, 0, Long.MAX_VALUE)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static byte[] content(int length, int seed) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) seed);
+        bytes[0] = (byte) length;
+        return bytes;
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+}
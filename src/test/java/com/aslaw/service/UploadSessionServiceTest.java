@@ -0,0 +1,150 @@
+package com.aslaw.service;
+
+import com.aslaw.config.FileUploadConfig;
+import com.aslaw.entity.UploadSession;
+import com.aslaw.repository.CaseRepository;
+import com.aslaw.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceTest {
+
+    private static final String SESSION_ID = "0b7e1f0c-5d7a-4a43-9d55-2f7d3c1a6e10";
+
+    @TempDir
+    Path uploadDir;
+
+    private UploadSessionRepository sessionRepository;
+    private UploadSessionService service;
+    private UploadSession session;
+    private Path stagingFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sessionRepository = mock(UploadSessionRepository.class);
+        FileUploadConfig fileUploadConfig = mock(FileUploadConfig.class);
+        when(fileUploadConfig.getUploadDir()).thenReturn(uploadDir.toString());
+        service = new UploadSessionService(sessionRepository, mock(CaseRepository.class), mock(DocumentService.class),
+                fileUploadConfig, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "maxChunkSize", 8L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "expiryHours", 24);
+
+        session = new UploadSession();
+        session.setId(SESSION_ID);
+        session.setCreatedBy("lawyer");
+        session.setTotalSize(100_000L);
+        session.setReceivedBytes(0L);
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+
+        stagingFile = uploadDir.resolve(".sessions").resolve(SESSION_ID + ".part");
+        Files.createDirectories(stagingFile.getParent());
+        Files.createFile(stagingFile);
+    }
+
+    @Test
+    void appendsChunkAndAcknowledgesNewOffset() throws IOException {
+        when(sessionRepository.advanceReceivedBytes(eq(SESSION_ID), eq(0L), eq(1000L), any())).thenReturn(1);
+
+        long offset = service.appendChunk(SESSION_ID, 0, 1000, new ByteArrayInputStream(content(1000)), "lawyer");
+
+        assertThat(offset).isEqualTo(1000);
+        assertThat(Files.readAllBytes(stagingFile)).isEqualTo(content(1000));
+    }
+
+    @Test
+    void rejectsChunkAtWrongOffset() {
+        session.setReceivedBytes(4096L);
+
+        assertThatThrownBy(() -> service.appendChunk(SESSION_ID, 0, 1000, new ByteArrayInputStream(content(1000)), "lawyer"))
+                .isInstanceOfSatisfying(UploadSessionService.OffsetMismatchException.class,
+                        e -> assertThat(e.getCurrentOffset()).isEqualTo(4096));
+        verify(sessionRepository, never()).advanceReceivedBytes(anyString(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void acknowledgesBytesWrittenBeforeConnectionDropped() throws IOException {
+        session.setReceivedBytes(1000L);
+        Files.write(stagingFile, content(1000));
+        when(sessionRepository.advanceReceivedBytes(eq(SESSION_ID), eq(1000L), eq(6000L), any())).thenReturn(1);
+
+        assertThatThrownBy(() -> service.appendChunk(SESSION_ID, 1000, 10_000, droppedAfter(content(5000)), "lawyer"))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Connection reset");
+
+        verify(sessionRepository).advanceReceivedBytes(eq(SESSION_ID), eq(1000L), eq(6000L), any());
+        byte[] staged = Files.readAllBytes(stagingFile);
+        assertThat(staged).hasSize(6000);
+        assertThat(Arrays.copyOfRange(staged, 0, 1000)).isEqualTo(content(1000));
+        assertThat(Arrays.copyOfRange(staged, 1000, 6000)).isEqualTo(content(5000));
+    }
+
+    @Test
+    void rejectsChunkWhenConcurrentRequestAdvancedFirst() {
+        when(sessionRepository.advanceReceivedBytes(eq(SESSION_ID), eq(0L), eq(1000L), any())).thenAnswer(invocation -> {
+            session.setReceivedBytes(1000L);
+            return 0;
+        });
+
+        assertThatThrownBy(() -> service.appendChunk(SESSION_ID, 0, 1000, new ByteArrayInputStream(content(1000)), "lawyer"))
+                .isInstanceOfSatisfying(UploadSessionService.OffsetMismatchException.class,
+                        e -> assertThat(e.getCurrentOffset()).isEqualTo(1000));
+    }
+
+    /**
+     * Body that delivers the given bytes and then fails like a reset connection
+     */
+    private static InputStream droppedAfter(byte[] bytes) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (position == bytes.length) {
+                    throw new IOException("Connection reset");
+                }
+                int count = Math.min(len, bytes.length - position);
+                System.arraycopy(bytes, position, b, off, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+
+    private static byte[] content(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+}